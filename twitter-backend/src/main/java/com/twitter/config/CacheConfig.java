@@ -0,0 +1,68 @@
+package com.twitter.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches are backed by Caffeine and configured through {@code spring.cache.*}; set
+ * {@code spring.cache.type=none} to run with caching disabled.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    private ExecutorService loadExecutor;
+
+    /**
+     * Runs Caffeine in async mode so that loads (JDBC calls) execute outside the map's bin lock. A synchronous
+     * {@code computeIfAbsent} would hold a monitor across the query and pin the carrier of a virtual thread.
+     * A put or evict still supersedes any in-flight load of the same key.
+     * <p>
+     * With virtual threads each load gets its own virtual thread. Otherwise loads run on a dedicated pool with
+     * one thread per JDBC connection, not on the shared {@code ForkJoinPool.commonPool()}; when its queue is
+     * full the request thread runs the load itself.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> asyncCaffeineCustomizer(
+            CacheProperties cacheProperties,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        loadExecutor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : loadPool(connectionPoolSize);
+        return cacheManager -> {
+            String spec = cacheProperties.getCaffeine().getSpec();
+            Caffeine<Object, Object> builder = StringUtils.hasText(spec) ? Caffeine.from(spec) : Caffeine.newBuilder();
+            builder.executor(loadExecutor);
+            cacheManager.setCaffeine(builder);
+            cacheManager.setAsyncCacheMode(true);
+        };
+    }
+
+    private static ExecutorService loadPool(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 16), runnable -> {
+            Thread thread = new Thread(runnable, "cache-load-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (loadExecutor != null) loadExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,77 @@
+package com.twitter.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * <p>
+ * A thread only reads from the replica after {@link #allowReplicaReads()}, which {@link ReadYourWritesFilter}
+ * calls for GET requests from clients that have not written recently. Other threads, including the cache
+ * loaders and background rebuilds, always use the primary, so a lagging replica never fills a shared cache.
+ * The key is resolved when a connection is obtained, which is why this must sit behind a
+ * {@code LazyConnectionDataSourceProxy}: the transaction's read-only flag is only visible after it began.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryConnections = connectionCounter(meterRegistry, PRIMARY);
+        this.replicaConnections = connectionCounter(meterRegistry, REPLICA);
+        afterPropertiesSet();
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, String pool) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out by the read/write router")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    public static void allowReplicaReads() {
+        REPLICA_ALLOWED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        REPLICA_ALLOWED.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replica = REPLICA_ALLOWED.get() != null && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return replica ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        countConnection();
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Connection connection = super.getConnection(username, password);
+        countConnection();
+        return connection;
+    }
+
+    private void countConnection() {
+        (REPLICA.equals(determineCurrentLookupKey()) ? replicaConnections : primaryConnections).increment();
+    }
+}
@@ -0,0 +1,82 @@
+package com.twitter.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Holds back the first {@code threshold} bytes of a body. A body that ends within them is sent with a
+ * {@code Content-Length}, which is what lets Tomcat apply {@code server.compression.min-response-size}; a longer
+ * body is streamed as before and compressed if the client accepts it.
+ */
+class SizedOutputMessage implements HttpOutputMessage {
+    private final HttpOutputMessage delegate;
+    private final int threshold;
+    private final ByteArrayOutputStream buffer;
+    private OutputStream body;
+
+    private final OutputStream stream = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (body == null && buffer.size() + length <= threshold) {
+                buffer.write(bytes, offset, length);
+                return;
+            }
+            if (body == null) {
+                body = delegate.getBody();
+                buffer.writeTo(body);
+            }
+            body.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Flushing a held-back body would commit the response before its length is known.
+            if (body != null) body.flush();
+        }
+    };
+
+    /**
+     * Lets {@code writer} write a body to {@code outputMessage}, holding back its first {@code threshold} bytes.
+     */
+    static void write(HttpOutputMessage outputMessage, int threshold, BodyWriter writer) throws IOException {
+        SizedOutputMessage sized = new SizedOutputMessage(outputMessage, threshold);
+        writer.write(sized);
+        sized.finish();
+    }
+
+    private SizedOutputMessage(HttpOutputMessage delegate, int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.buffer = new ByteArrayOutputStream(Math.min(threshold, 1024));
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public OutputStream getBody() {
+        return stream;
+    }
+
+    private void finish() throws IOException {
+        if (body != null) return;
+        delegate.getHeaders().setContentLength(buffer.size());
+        buffer.writeTo(delegate.getBody());
+    }
+
+    @FunctionalInterface
+    interface BodyWriter {
+        void write(HttpOutputMessage outputMessage) throws IOException;
+    }
+}
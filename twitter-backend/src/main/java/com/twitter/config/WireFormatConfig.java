@@ -0,0 +1,67 @@
+package com.twitter.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Offers CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) next to JSON for every
+ * API body, chosen by the client's {@code Accept} header. The mappers come from the same Boot-configured builder
+ * as the JSON one, so field names, modules and date formats are identical and only the encoding differs.
+ * <p>
+ * All three converters write small bodies with a {@code Content-Length}, see {@link SizedOutputMessage}.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    private final int compressionThreshold;
+
+    public WireFormatConfig(@Value("${server.compression.min-response-size:2KB}") DataSize compressionThreshold) {
+        this.compressionThreshold = (int) compressionThreshold.toBytes();
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                SizedOutputMessage.write(outputMessage, compressionThreshold,
+                        sized -> super.writeInternal(object, type, sized));
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                SizedOutputMessage.write(outputMessage, compressionThreshold,
+                        sized -> super.writeInternal(object, type, sized));
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                SizedOutputMessage.write(outputMessage, compressionThreshold,
+                        sized -> super.writeInternal(object, type, sized));
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.twitter.controller;
+
+import com.twitter.exception.BadRequestException;
+import com.twitter.exception.ResourceNotFoundException;
+import com.twitter.model.Follow;
+import com.twitter.repository.FollowRepository;
+import com.twitter.repository.UserRepository;
+import com.twitter.service.FollowWriter;
+import com.twitter.service.TimelineService;
+import com.twitter.service.UserProfileService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/users/{userId}/following")
+public class FollowController {
+    private static final Logger logger = LoggerFactory.getLogger(FollowController.class);
+
+    @Autowired
+    private FollowRepository followRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private FollowWriter followWriter;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private UserProfileService userProfileService;
+
+    @PostMapping("/{followeeId}")
+    public ResponseEntity<Void> follow(@PathVariable Long userId, @PathVariable Long followeeId) {
+        logger.info("User {} following user {}", userId, followeeId);
+        if (userId.equals(followeeId)) throw new BadRequestException("Users cannot follow themselves");
+        if (followRepo.existsByFollowerIdAndFolloweeId(userId, followeeId)) return ResponseEntity.noContent().build();
+
+        Follow follow = new Follow();
+        follow.setFollower(userRepo.findActiveById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + userId)));
+        follow.setFollowee(userRepo.findActiveById(followeeId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + followeeId)));
+        try {
+            followWriter.follow(follow);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent identical follow won the unique key; it also did the cache invalidation.
+            if (!followRepo.existsByFollowerIdAndFolloweeId(userId, followeeId)) throw e;
+            return ResponseEntity.noContent().build();
+        }
+        onFollowsChanged(userId, followeeId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{followeeId}")
+    public ResponseEntity<Void> unfollow(@PathVariable Long userId, @PathVariable Long followeeId) {
+        logger.info("User {} unfollowing user {}", userId, followeeId);
+        if (followWriter.unfollow(userId, followeeId)) onFollowsChanged(userId, followeeId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private void onFollowsChanged(Long followerId, Long followeeId) {
+        timelineService.invalidate(followerId);
+        userProfileService.evict(followerId);
+        userProfileService.evict(followeeId);
+    }
+}
@@ -1,25 +1,47 @@
 package com.twitter.controller;
 
+import com.twitter.model.CursorPage;
 import com.twitter.model.Post;
+import com.twitter.model.PostCursor;
 import com.twitter.model.PostDto;
+import com.twitter.model.UserProfile;
 import com.twitter.repository.PostRepository;
 import com.twitter.repository.UserRepository;
+import com.twitter.exception.BadRequestException;
 import com.twitter.exception.ResourceNotFoundException;
+import com.twitter.service.FeedVersionService;
+import com.twitter.service.PostEventBus;
+import com.twitter.service.PostIngestionService;
+import com.twitter.service.PostSearchService;
+import com.twitter.service.PostWriter;
+import com.twitter.service.RecentPostsService;
+import com.twitter.service.TimelineService;
+import com.twitter.service.TrendingService;
+import com.twitter.service.UserProfileService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/posts")
 public class PostController {
     private static final Logger logger = LoggerFactory.getLogger(PostController.class);
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
     private PostRepository postRepo;
@@ -27,37 +49,193 @@ public class PostController {
     @Autowired
     private UserRepository userRepo;
 
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private UserProfileService userProfileService;
+
+    @Autowired
+    private PostEventBus postEventBus;
+
+    @Autowired
+    private PostIngestionService postIngestionService;
+
+    @Autowired
+    private PostWriter postWriter;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private RecentPostsService recentPostsService;
+
+    @Autowired
+    private FeedVersionService feedVersionService;
+
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long streamTimeoutMillis;
+
+    @Transactional(readOnly = true)
     @GetMapping
-    public List<PostDto> getAllPosts() {
-        logger.info("Fetching all posts");
-        return postRepo.findAll().stream()
-                .map(post -> new PostDto(
-                        post.getId(),
-                        post.getContent(),
-                        post.getCreatedAt(),
-                        post.getUser() != null ? post.getUser().getId() : null,
-                        post.getUser() != null ? post.getUser().getUsername() : "Unknown"
-                ))
-                .collect(Collectors.toList());
+    public CursorPage<PostDto> getAllPosts(@RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int size,
+                                           WebRequest request) {
+        int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        logger.info("Fetching posts page (cursor={}, size={})", cursor, limit);
+        // Polling clients that are up to date cost one index lookup and get 304 Not Modified.
+        String etag = feedVersionService.etag();
+        if (etag != null && request.checkNotModified(etag)) return null;
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query.
+        List<PostDto> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = postRepo.findLatest(Limit.of(limit + 1));
+        } else {
+            PostCursor position = PostCursor.decode(cursor);
+            posts = postRepo.findOlderThan(position.getCreatedAt(), position.getId(), Limit.of(limit + 1));
+        }
+
+        List<PostDto> items = posts.size() > limit ? posts.subList(0, limit) : posts;
+        String nextCursor = posts.size() > limit ? PostCursor.of(items.get(limit - 1)).encode() : null;
+        return new CursorPage<>(items, nextCursor);
     }
 
     @PostMapping("/user/{userId}")
-    public ResponseEntity<Post> createPost(@PathVariable Long userId, @RequestBody Map<String, String> payload) {
+    public CompletableFuture<ResponseEntity<Post>> createPost(@PathVariable Long userId, @RequestBody Map<String, String> payload) {
         logger.info("Creating post for user {}", userId);
-        return userRepo.findById(userId).map(user -> {
-            Post post = new Post();
-            post.setUser(user);
-            post.setContent(payload.get("content"));
-            postRepo.save(post);
-            return ResponseEntity.ok(post);
-        }).orElseThrow(() -> new ResourceNotFoundException("User not found with id " + userId));
+        // The cached profile proves the author exists; the FK only needs a reference, not a loaded User.
+        UserProfile profile = userProfileService.getProfile(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + userId));
+        Post post = new Post();
+        post.setUser(userRepo.getReferenceById(userId));
+        post.setContent(payload.get("content"));
+
+        // Completes once the post is committed, which in batched mode is when its whole batch commits.
+        return postIngestionService.submit(post).thenApply(saved -> {
+            timelineService.onPostCreated(userId, saved.getId());
+            recentPostsService.evict(userId);
+            userProfileService.evict(userId);
+            feedVersionService.changed(userId);
+            postSearchService.index(saved.getId(), saved.getContent());
+            trendingService.recordPostAsync(saved.getContent());
+            postEventBus.publish(new PostDto(saved.getId(), saved.getContent(), saved.getCreatedAt(), userId,
+                    profile.getUsername() != null ? profile.getUsername() : "Unknown"));
+            return ResponseEntity.ok(saved);
+        });
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deletePost(@PathVariable Long id) {
+        logger.info("Deleting post with id {}", id);
+        Long authorId = postWriter.delete(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found with id " + id));
+        // Timelines skip the id once its post no longer loads; the search index drops it on commit.
+        recentPostsService.evict(authorId);
+        userProfileService.evict(authorId);
+        feedVersionService.changed(authorId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/search")
+    public CursorPage<PostDto> searchPosts(@RequestParam String q,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int size) {
+        int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        logger.info("Searching posts (q={}, cursor={}, size={})", q, cursor, limit);
+        if (q.isBlank()) throw new BadRequestException("Query must not be empty");
+
+        // Ranked results have no stable keyset, so the cursor is simply the offset of the next hit.
+        int offset = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                offset = Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            if (offset < 0) throw new BadRequestException("Invalid cursor");
+        }
+
+        // Hits whose post can no longer be loaded (author awaiting purge, delete not yet unindexed) are skipped,
+        // and the page is topped up from the hits after them.
+        List<PostDto> items = new ArrayList<>();
+        boolean more = true;
+        while (items.size() < limit && more) {
+            int wanted = limit - items.size();
+            List<Long> ids = postSearchService.search(q, offset, wanted + 1);
+            more = ids.size() > wanted;
+            List<Long> pageIds = more ? ids.subList(0, wanted) : ids;
+            Map<Long, PostDto> byId = new HashMap<>();
+            postRepo.findDtosByIdIn(pageIds).forEach(post -> byId.put(post.getId(), post));
+            pageIds.stream().map(byId::get).filter(Objects::nonNull).forEach(items::add);
+            offset += pageIds.size();
+        }
+        String nextCursor = more ? String.valueOf(offset) : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    @GetMapping(path = "/stream", produces = "text/event-stream")
+    public SseEmitter streamPosts(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        logger.info("Opening post stream (lastEventId={})", lastEventId);
+        PostCursor since = lastEventId == null || lastEventId.isBlank() ? null : PostCursor.decode(lastEventId);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        postEventBus.subscribe(emitter, since);
+        return emitter;
     }
 
+    @GetMapping("/timeline/{userId}")
+    public CursorPage<PostDto> getHomeTimeline(@PathVariable Long userId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "20") int size) {
+        int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        logger.info("Fetching home timeline for user {} (cursor={}, size={})", userId, cursor, limit);
+        if (userProfileService.getProfile(userId).isEmpty()) {
+            throw new ResourceNotFoundException("User not found with id " + userId);
+        }
+
+        long beforeId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                beforeId = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        return timelineService.homeTimeline(userId, beforeId, limit);
+    }
+
+    // No transaction here, so a page served from the caches takes no connection. The queries below run in the
+    // repository's own read-only transaction, which is what routes them to the replica.
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Post>> getUserPosts(@PathVariable Long userId) {
-        logger.info("Fetching posts for user {}", userId);
-        return userRepo.findById(userId)
-                .map(user -> ResponseEntity.ok(user.getPosts()))
+    public CursorPage<PostDto> getUserPosts(@PathVariable Long userId,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            WebRequest request) {
+        int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        logger.info("Fetching posts for user {} (cursor={}, size={})", userId, cursor, limit);
+        UserProfile profile = userProfileService.getProfile(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + userId));
+        // Every new or deleted post bumps postsVersion and a rename bumps version, so the cached profile already knows.
+        String etag = "W/\"posts-" + feedVersionService.instance() + "-" + profile.getVersion() + "-"
+                + profile.getPostsVersion() + "\"";
+        if (feedVersionService.settled(userId) && request.checkNotModified(etag)) return null;
+
+        List<PostDto> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = limit <= RecentPostsService.FIRST_PAGE_SIZE
+                    ? recentPostsService.firstPage(userId)
+                    : postRepo.findLatestByUser(userId, Limit.of(limit + 1));
+        } else {
+            PostCursor position = PostCursor.decode(cursor);
+            posts = postRepo.findOlderByUser(userId, position.getCreatedAt(), position.getId(), Limit.of(limit + 1));
+        }
+
+        List<PostDto> items = posts.size() > limit ? posts.subList(0, limit) : posts;
+        String nextCursor = posts.size() > limit ? PostCursor.of(items.get(limit - 1)).encode() : null;
+        return new CursorPage<>(items, nextCursor);
     }
 }
@@ -0,0 +1,27 @@
+package com.twitter.controller;
+
+import com.twitter.model.TrendingTopic;
+import com.twitter.service.TrendingService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/trends")
+public class TrendController {
+    private static final Logger logger = LoggerFactory.getLogger(TrendController.class);
+    private static final int MAX_TRENDS = 50;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @GetMapping
+    public List<TrendingTopic> getTrends(@RequestParam(defaultValue = "10") int limit) {
+        logger.info("Fetching top {} trends", limit);
+        return trendingService.topTrends(Math.clamp(limit, 1, MAX_TRENDS));
+    }
+}
@@ -0,0 +1,96 @@
+package com.twitter.controller;
+
+import com.twitter.exception.ResourceNotFoundException;
+import com.twitter.service.FileStorageService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves stored uploads. Names are content-addressed (or at least unique), so responses are cacheable forever
+ * and the content hash doubles as a strong ETag. Conditional requests are answered from file metadata alone,
+ * range requests are delegated to Spring's resource region support, and large full-body responses are handed
+ * to Tomcat's sendfile so the bytes never pass through the JVM.
+ */
+@RestController
+public class UploadController {
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("([0-9a-f]{64})\\.[a-z0-9]+");
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Value("${app.uploads.sendfile-threshold-bytes:49152}")
+    private long sendfileThreshold;
+
+    @GetMapping("/uploads/{*key}")
+    public ResponseEntity<Resource> getUpload(@PathVariable String key, HttpServletRequest request,
+                                              HttpServletResponse response) throws IOException {
+        Path path = fileStorageService.resolve(key.startsWith("/") ? key.substring(1) : key);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File not found: " + key);
+        }
+        if (!attributes.isRegularFile()) throw new ResourceNotFoundException("File not found: " + key);
+
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = etagFor(path, attributes);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE.getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return null;
+        }
+
+        MediaType contentType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        long size = attributes.size();
+        if (request.getHeader(HttpHeaders.RANGE) == null && size >= sendfileThreshold
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(size);
+            // Tomcat only accepts canonical paths for sendfile.
+            request.setAttribute(SENDFILE_FILENAME, path.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(fileStorageService.open(path));
+    }
+
+    private static String etagFor(Path path, BasicFileAttributes attributes) {
+        Matcher matcher = CONTENT_HASH.matcher(path.getFileName().toString());
+        if (matcher.matches()) return "\"" + matcher.group(1) + "\"";
+        return "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+    }
+}
@@ -1,22 +1,41 @@
 package com.twitter.controller;
 
+import com.twitter.model.CursorPage;
+import com.twitter.model.PurgeProgress;
 import com.twitter.model.User;
+import com.twitter.model.UserProfile;
+import com.twitter.model.UserSuggestion;
+import com.twitter.model.UserSummary;
 import com.twitter.repository.UserRepository;
+import com.twitter.exception.BadRequestException;
 import com.twitter.exception.ResourceNotFoundException;
 
+import com.twitter.service.AvatarThumbnailService;
+import com.twitter.service.FeedVersionService;
 import com.twitter.service.FileStorageService;
+import com.twitter.service.RecentPostsService;
+import com.twitter.service.TimelineService;
+import com.twitter.service.UserDirectoryService;
+import com.twitter.service.UserProfileService;
+import com.twitter.service.UserPurgeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,6 +43,8 @@ import java.util.UUID;
 @RequestMapping("/api/users")
 public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
     FileStorageService fileStorageService;
@@ -31,18 +52,93 @@ public class UserController {
     @Autowired
     private UserRepository userRepo;
 
+    @Autowired
+    private UserPurgeService userPurgeService;
+
+    @Autowired
+    private FeedVersionService feedVersionService;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private UserProfileService userProfileService;
+
+    @Autowired
+    private RecentPostsService recentPostsService;
+
+    @Autowired
+    private AvatarThumbnailService avatarThumbnailService;
+
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+
+    @Transactional(readOnly = true)
     @GetMapping
-    public List<User> getAllUsers() {
-        logger.info("Fetching all users");
-        return userRepo.findAll();
+    public CursorPage<UserSummary> getAllUsers(@RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "20") int size) {
+        int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        logger.info("Fetching users page (cursor={}, size={})", cursor, limit);
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                afterId = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        // Summaries carry the stored post count; User.posts is never loaded or serialized on this path.
+        List<UserSummary> users = userRepo.findSummariesAfterId(afterId, Limit.of(limit + 1));
+        List<UserSummary> items = users.size() > limit ? users.subList(0, limit) : users;
+        String nextCursor = users.size() > limit ? String.valueOf(items.get(limit - 1).getId()) : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    @GetMapping("/handle/{handle}")
+    public ResponseEntity<UserProfile> getUserByHandle(@PathVariable String handle) {
+        logger.info("Fetching user with handle {}", handle);
+        // The unique index on handle makes this a single index lookup; the profile then comes from the cache.
+        UserProfile profile = userRepo.findIdByHandle(handle)
+                .flatMap(userProfileService::getProfile)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with handle " + handle));
+        return ResponseEntity.ok(profile);
+    }
+
+    @GetMapping("/suggest")
+    public List<UserSuggestion> suggestUsers(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return userDirectoryService.suggest(q.strip(), Math.clamp(limit, 1, MAX_SUGGESTIONS));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserProfile> getUserById(@PathVariable Long id, WebRequest request) {
         logger.info("Fetching user with id {}", id);
-        User user = userRepo.findById(id)
+        UserProfile profile = userProfileService.getProfile(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + id));
-        return ResponseEntity.ok(user);
+        // The counters are not covered by the version, so they are part of the tag.
+        String etag = "W/\"user-" + feedVersionService.instance() + "-" + profile.getVersion() + "-"
+                + profile.getPostCount() + "-" + profile.getFollowerCount() + "-" + profile.getFollowingCount() + "\"";
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok(profile);
+    }
+
+    /**
+     * Redirects to the smallest stored avatar variant of at least {@code size} pixels, or to the original.
+     */
+    @GetMapping("/{id}/avatar")
+    public ResponseEntity<Void> getAvatar(@PathVariable Long id, @RequestParam(defaultValue = "0") int size) {
+        UserProfile profile = userProfileService.getProfile(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + id));
+        String url;
+        if (profile.getAvatarFileName() != null) {
+            url = FileStorageService.urlFor(
+                    AvatarThumbnailService.variantFor(profile.getAvatarFileName(), profile.getAvatarVariants(), size));
+        } else if (profile.getAvatarUrl() != null) {
+            url = profile.getAvatarUrl();
+        } else {
+            throw new ResourceNotFoundException("User " + id + " has no avatar");
+        }
+        return ResponseEntity.status(HttpStatus.FOUND).location(URI.create("/" + url)).build();
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -61,10 +157,16 @@ public class UserController {
             user.setBio(bio);
 
             if (avatarFile != null && !avatarFile.isEmpty()) {
-                user.setAvatarUrl(fileStorageService.saveFile(avatarFile));
+                String key = fileStorageService.saveFile(avatarFile);
+                user.setAvatarFileName(key);
+                user.setAvatarUrl(FileStorageService.urlFor(key));
             }
 
-            return ResponseEntity.ok(userRepo.save(user));
+            User saved = userRepo.save(user);
+            userProfileService.refresh(saved);
+            userDirectoryService.put(saved);
+            avatarThumbnailService.generateVariantsAsync(saved.getAvatarFileName());
+            return ResponseEntity.ok(saved);
         } catch (IOException e) {
             throw new RuntimeException("Failed to upload avatar", e);
         }
@@ -80,7 +182,9 @@ public class UserController {
             @RequestPart("bio") String bio,
             @RequestPart(value = "avatar", required = false) MultipartFile avatarFile
     ) {
-        return userRepo.findById(id).map(user -> {
+        return userRepo.findActiveById(id).map(user -> {
+            String previousAvatar = user.getAvatarFileName();
+            boolean renamed = !username.equals(user.getUsername());
             user.setUsername(username);
             user.setHandle(handle);
             user.setLocation(location);
@@ -88,22 +192,56 @@ public class UserController {
 
             if (avatarFile != null && !avatarFile.isEmpty()) {
                 try {
-                    user.setAvatarUrl(fileStorageService.saveFile(avatarFile));
+                    String key = fileStorageService.saveFile(avatarFile);
+                    if (previousAvatar == null || !previousAvatar.equals(key)) user.setAvatarVariants(null);
+                    user.setAvatarFileName(key);
+                    user.setAvatarUrl(FileStorageService.urlFor(key));
                 } catch (IOException e) {
                     throw new RuntimeException("Failed to upload avatar", e);
                 }
             }
 
-            return ResponseEntity.ok(userRepo.save(user));
+            User saved = userRepo.save(user);
+            // Evicted rather than replaced: posts and follows committed since findActiveById moved the counters,
+            // which this entity still holds as read.
+            userProfileService.evict(id);
+            userDirectoryService.put(saved);
+            // Feed entries and the cached first page of the user's posts carry the author's name.
+            if (renamed) {
+                recentPostsService.evict(id);
+                feedVersionService.changed(id);
+            }
+            if (saved.getAvatarFileName() != null && !saved.getAvatarFileName().equals(previousAvatar)) {
+                avatarThumbnailService.generateVariantsAsync(saved.getAvatarFileName());
+                if (previousAvatar != null) fileStorageService.releaseIfUnreferenced(previousAvatar);
+            }
+            return ResponseEntity.ok(saved);
         }).orElse(ResponseEntity.notFound().build());
     }
 
 
+    /**
+     * Soft-deletes the account: it disappears from every read at once, while its posts, follows and avatar are
+     * purged in the background. Progress is available at {@code /api/users/{id}/deletion} until the purge ends.
+     */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         logger.info("Deleting user with id {}", id);
-        if (!userRepo.existsById(id)) throw new ResourceNotFoundException("User not found with id " + id);
-        userRepo.deleteById(id);
-        return ResponseEntity.noContent().build();
+        if (userRepo.markDeleted(id, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("User not found with id " + id);
+        }
+        userProfileService.evict(id);
+        userDirectoryService.remove(id);
+        timelineService.invalidate(id);
+        feedVersionService.changed();
+        userPurgeService.schedule(id);
+        return ResponseEntity.accepted().location(URI.create("/api/users/" + id + "/deletion")).build();
+    }
+
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<PurgeProgress> getDeletionProgress(@PathVariable Long id) {
+        PurgeProgress progress = userPurgeService.progress(id)
+                .orElseThrow(() -> new ResourceNotFoundException("No deletion in progress for user " + id));
+        return ResponseEntity.ok(progress);
     }
 }
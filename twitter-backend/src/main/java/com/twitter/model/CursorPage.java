@@ -0,0 +1,14 @@
+package com.twitter.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    /** Opaque token for the next page, or {@code null} when this is the last page. */
+    private String nextCursor;
+}
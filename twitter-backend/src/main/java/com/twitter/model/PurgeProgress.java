@@ -0,0 +1,21 @@
+package com.twitter.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Snapshot of the background purge of a deleted account; {@code postsRemaining} comes from its post counter.
+ * A purge that failed is {@code RETRYING} until its next attempt starts.
+ */
+@Data
+@AllArgsConstructor
+public class PurgeProgress {
+    public enum Status { QUEUED, RUNNING, RETRYING }
+
+    private Long userId;
+    private Status status;
+    private long postsPurged;
+    private long followsPurged;
+    private long postsRemaining;
+    private int failedAttempts;
+}
@@ -0,0 +1,12 @@
+package com.twitter.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TrendingTopic {
+    private String topic;
+    private String type;
+    private long count;
+}
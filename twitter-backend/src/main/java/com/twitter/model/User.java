@@ -1,21 +1,35 @@
 package com.twitter.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_avatar_file_name", columnList = "avatar_file_name"),
+        @Index(name = "idx_users_deleted_at", columnList = "deleted_at")
+})
 @Data
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Guards profile edits against lost updates. Bulk updates of columns the entity also writes (soft delete,
+     * avatar variants) bump it too; the counter updates do not.
+     */
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
     @Column(nullable = false)
     private String username;
 
@@ -23,12 +37,35 @@ public class User {
     private String handle;
 
     private String avatarUrl;
+    /** Content-addressed storage key of the avatar blob, see {@code FileStorageService}. */
     private String avatarFileName;
+    /** Comma-separated pixel sizes of the resized variants generated for the avatar blob. */
+    private String avatarVariants;
     private String location;
     private String bio;
     private LocalDateTime joinDate = LocalDateTime.now();
+    /** Set when the account is deleted; the row stays until {@code UserPurgeService} has removed its data. */
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+
+    // Denormalized counters, maintained by conditional UPDATEs in the writing transaction and repaired by
+    // CounterReconciliationService; never written through the entity.
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private long postCount;
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private long followerCount;
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private long followingCount;
+    /** Bumped with every change to postCount, so it changes whenever the user's posts do. */
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private long postsVersion;
 
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
+    // No cascade: posts are removed in bulk chunks by UserPurgeService, never through this collection.
+    @OneToMany(mappedBy = "user")
     @JsonManagedReference
     private List<Post> posts = new ArrayList<>();
 }
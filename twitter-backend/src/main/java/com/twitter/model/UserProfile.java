@@ -0,0 +1,48 @@
+package com.twitter.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a {@link User} without the posts collection, safe to cache and share across requests.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfile {
+    private Long id;
+    private String username;
+    private String handle;
+    private String avatarUrl;
+    private String avatarFileName;
+    private String avatarVariants;
+    private String location;
+    private String bio;
+    private LocalDateTime joinDate;
+    private long postCount;
+    private long followerCount;
+    private long followingCount;
+    private long version;
+    private long postsVersion;
+
+    public static UserProfile from(User user) {
+        return new UserProfile(
+                user.getId(),
+                user.getUsername(),
+                user.getHandle(),
+                user.getAvatarUrl(),
+                user.getAvatarFileName(),
+                user.getAvatarVariants(),
+                user.getLocation(),
+                user.getBio(),
+                user.getJoinDate(),
+                user.getPostCount(),
+                user.getFollowerCount(),
+                user.getFollowingCount(),
+                user.getVersion(),
+                user.getPostsVersion());
+    }
+}
@@ -0,0 +1,20 @@
+package com.twitter.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Minimal user card returned by autocomplete and held in memory by the user directory.
+ */
+@Data
+@AllArgsConstructor
+public class UserSuggestion {
+    private Long id;
+    private String handle;
+    private String username;
+    private String avatarUrl;
+
+    public static UserSuggestion from(User user) {
+        return new UserSuggestion(user.getId(), user.getHandle(), user.getUsername(), user.getAvatarUrl());
+    }
+}
@@ -0,0 +1,17 @@
+package com.twitter.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Row of the paginated user listing; built directly by the query, so no {@link User} or post is loaded.
+ */
+@Data
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String handle;
+    private String username;
+    private String avatarUrl;
+    private Long postCount;
+}
@@ -0,0 +1,41 @@
+package com.twitter.repository;
+
+import com.twitter.model.Follow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, Long> {
+
+    boolean existsByFollowerIdAndFolloweeId(Long followerId, Long followeeId);
+
+    @Query("select f.follower.id from Follow f where f.followee.id = :userId")
+    List<Long> findFollowerIds(@Param("userId") Long userId, Limit limit);
+
+    @Query("select f.followee.id from Follow f where f.follower.id = :userId")
+    List<Long> findFolloweeIds(@Param("userId") Long userId);
+
+    @Query("select f.followee.id from Follow f where f.follower.id = :userId and f.followee.id in :candidateIds")
+    List<Long> findFolloweeIdsAmong(@Param("userId") Long userId, @Param("candidateIds") Collection<Long> candidateIds);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Follow f where f.follower.id = :followerId and f.followee.id = :followeeId")
+    int deleteFollow(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    @Query("select f.id from Follow f where f.follower.id = :userId or f.followee.id = :userId")
+    List<Long> findIdsInvolving(@Param("userId") Long userId, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Follow f where f.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
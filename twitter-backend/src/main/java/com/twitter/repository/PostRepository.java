@@ -1,8 +1,125 @@
 package com.twitter.repository;
 
 import com.twitter.model.Post;
+import com.twitter.model.PostDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface PostRepository extends JpaRepository<Post, Long> {}
+public interface PostRepository extends JpaRepository<Post, Long> {
+
+    // Feed reads project straight into PostDto through a single join, so no Post or User
+    // entities are materialized and no per-author selects are issued. Posts of deleted accounts that are
+    // still waiting to be purged are filtered out on the same join.
+
+    @Query("""
+            select new com.twitter.model.PostDto(p.id, p.content, p.createdAt, u.id, coalesce(u.username, 'Unknown'))
+            from Post p left join p.user u
+            where u.deletedAt is null
+            order by p.createdAt desc, p.id desc
+            """)
+    List<PostDto> findLatest(Limit limit);
+
+    @Query("""
+            select new com.twitter.model.PostDto(p.id, p.content, p.createdAt, u.id, coalesce(u.username, 'Unknown'))
+            from Post p left join p.user u
+            where (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)) and u.deletedAt is null
+            order by p.createdAt desc, p.id desc
+            """)
+    List<PostDto> findOlderThan(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("""
+            select new com.twitter.model.PostDto(p.id, p.content, p.createdAt, u.id, coalesce(u.username, 'Unknown'))
+            from Post p left join p.user u
+            where (p.createdAt > :createdAt or (p.createdAt = :createdAt and p.id > :id)) and u.deletedAt is null
+            order by p.createdAt asc, p.id asc
+            """)
+    List<PostDto> findNewerThan(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("""
+            select new com.twitter.model.PostDto(p.id, p.content, p.createdAt, u.id, coalesce(u.username, 'Unknown'))
+            from Post p join p.user u
+            where p.user.id = :userId
+            order by p.createdAt desc, p.id desc
+            """)
+    List<PostDto> findLatestByUser(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+            select new com.twitter.model.PostDto(p.id, p.content, p.createdAt, u.id, coalesce(u.username, 'Unknown'))
+            from Post p join p.user u
+            where p.user.id = :userId
+              and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id))
+            order by p.createdAt desc, p.id desc
+            """)
+    List<PostDto> findOlderByUser(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") Long id, Limit limit);
+
+    @Query("""
+            select new com.twitter.model.PostDto(p.id, p.content, p.createdAt, u.id, coalesce(u.username, 'Unknown'))
+            from Post p left join p.user u
+            where p.id in :ids and u.deletedAt is null
+            """)
+    List<PostDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new com.twitter.model.PostDto(p.id, p.content, p.createdAt, u.id, coalesce(u.username, 'Unknown'))
+            from Post p left join p.user u
+            where p.id > :afterId and u.deletedAt is null
+            order by p.id
+            """)
+    List<PostDto> findDtosAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            select p.id from Post p
+            where p.user.id = :userId
+               or p.user.id in (select f.followee.id from Follow f where f.follower.id = :userId)
+            order by p.id desc
+            """)
+    List<Long> findHomeTimelineIds(@Param("userId") Long userId, Limit limit);
+
+    @Query("""
+            select p.id from Post p
+            where p.user.id in :authorIds and p.id < :beforeId
+            order by p.id desc
+            """)
+    List<Long> findIdsByAuthorsBefore(@Param("authorIds") Collection<Long> authorIds,
+                                      @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("select coalesce(max(p.id), 0) from Post p")
+    long findMaxId();
+
+    // Unlike the feed reads, these two also see posts of deleted authors: they serve deletion and purge.
+    @Query("""
+            select new com.twitter.model.PostDto(p.id, p.content, p.createdAt, u.id, u.username)
+            from Post p join p.user u
+            where p.id = :id
+            """)
+    Optional<PostDto> findDtoById(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Post p where p.id = :id")
+    int deletePost(@Param("id") Long id);
+
+    @Query("""
+            select new com.twitter.model.PostDto(p.id, p.content, p.createdAt, u.id, u.username)
+            from Post p join p.user u
+            where u.id = :userId
+            """)
+    List<PostDto> findDtosByUser(@Param("userId") Long userId, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Post p where p.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,8 +1,149 @@
 package com.twitter.repository;
 
 import com.twitter.model.User;
+import com.twitter.model.UserSuggestion;
+import com.twitter.model.UserSummary;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {}
+public interface UserRepository extends JpaRepository<User, Long> {
+
+    // Deleted accounts keep their row until purged; every read path below skips them.
+
+    @Query("select u from User u where u.id = :id and u.deletedAt is null")
+    Optional<User> findActiveById(@Param("id") Long id);
+
+    long countByAvatarFileName(String avatarFileName);
+
+    @Query("select u.avatarFileName from User u where u.id = :id")
+    Optional<String> findAvatarFileNameById(@Param("id") Long id);
+
+    @Query("select u.id from User u where u.avatarFileName = :avatarFileName")
+    List<Long> findIdsByAvatarFileName(@Param("avatarFileName") String avatarFileName);
+
+    @Query("""
+            select new com.twitter.model.UserSummary(u.id, u.handle, u.username, u.avatarUrl,
+                u.postCount)
+            from User u
+            where u.id > :afterId and u.deletedAt is null
+            order by u.id
+            """)
+    List<UserSummary> findSummariesAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select u.id from User u where u.handle = :handle")
+    Optional<Long> findIdByHandle(@Param("handle") String handle);
+
+    @Query("""
+            select new com.twitter.model.UserSuggestion(u.id, u.handle, u.username, u.avatarUrl)
+            from User u
+            where u.id > :afterId and u.deletedAt is null
+            order by u.id
+            """)
+    List<UserSuggestion> findSuggestionsAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select u.handle from User u where u.handle in :handles")
+    List<String> findExistingHandles(@Param("handles") Collection<String> handles);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update User u set u.avatarVariants = :variants, u.version = u.version + 1
+            where u.avatarFileName = :avatarFileName
+            """)
+    int updateAvatarVariants(@Param("avatarFileName") String avatarFileName, @Param("variants") String variants);
+
+    // Counter updates only ever add a delta to the stored value and refuse to go below zero, so concurrent
+    // writers never overwrite each other and a late decrement cannot produce a negative count. The entity never
+    // writes the counters, so they leave the optimistic-lock version alone; a post count change bumps postsVersion.
+    @Modifying
+    @Transactional
+    @Query("""
+            update User u set u.postCount = u.postCount + :delta, u.postsVersion = u.postsVersion + 1
+            where u.id = :id and u.postCount + :delta >= 0
+            """)
+    int adjustPostCount(@Param("id") Long id, @Param("delta") long delta);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update User u set u.followerCount = u.followerCount + :delta
+            where u.id = :id and u.followerCount + :delta >= 0
+            """)
+    int adjustFollowerCount(@Param("id") Long id, @Param("delta") long delta);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update User u set u.followingCount = u.followingCount + :delta
+            where u.id = :id and u.followingCount + :delta >= 0
+            """)
+    int adjustFollowingCount(@Param("id") Long id, @Param("delta") long delta);
+
+    /** Takes back the follower count {@code userId} gave each followee, for the given follows only. */
+    @Modifying
+    @Transactional
+    @Query("""
+            update User u set u.followerCount = u.followerCount - 1
+            where u.followerCount > 0
+              and u.id in (select f.followee.id from Follow f where f.id in :followIds and f.follower.id = :userId)
+            """)
+    int decrementFollowerCountsOfFollowees(@Param("userId") Long userId, @Param("followIds") Collection<Long> followIds);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update User u set u.followingCount = u.followingCount - 1
+            where u.followingCount > 0
+              and u.id in (select f.follower.id from Follow f where f.id in :followIds and f.followee.id = :userId)
+            """)
+    int decrementFollowingCountsOfFollowers(@Param("userId") Long userId, @Param("followIds") Collection<Long> followIds);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update User u set u.deletedAt = :deletedAt, u.version = u.version + 1
+            where u.id = :id and u.deletedAt is null
+            """)
+    int markDeleted(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Query("select u.id from User u where u.deletedAt is not null order by u.id")
+    List<Long> findDeletedIds();
+
+    /** Removes the row of a deleted account; fails on the foreign keys while any post or follow is left. */
+    @Modifying
+    @Transactional
+    @Query("delete from User u where u.id = :id and u.deletedAt is not null")
+    int purgeDeleted(@Param("id") Long id);
+
+    @Query("select coalesce(max(u.id), 0) from User u")
+    long findMaxId();
+
+    /**
+     * Recounts the users with ids in {@code (afterId, toId]} and rewrites only the rows whose counters drifted.
+     * Returns the number of rows repaired.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update User u set
+                u.postCount = (select count(p) from Post p where p.user = u),
+                u.followerCount = (select count(f) from Follow f where f.followee = u),
+                u.followingCount = (select count(f) from Follow f where f.follower = u)
+            where u.id > :afterId and u.id <= :toId and (
+                u.postCount <> (select count(p) from Post p where p.user = u)
+                or u.followerCount <> (select count(f) from Follow f where f.followee = u)
+                or u.followingCount <> (select count(f) from Follow f where f.follower = u))
+            """)
+    int reconcileCounters(@Param("afterId") Long afterId, @Param("toId") Long toId);
+}
@@ -0,0 +1,208 @@
+package com.twitter.service;
+
+import com.twitter.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Generates square, re-encoded avatar variants off the request path. Variants are stored next to the original
+ * blob as {@code <hash>_<size>.<ext>}, so they are shared by every user with the same avatar, whatever extension
+ * it was uploaded with, and are collected with the last blob of that content. Once written, the available sizes are recorded on each user referencing the blob.
+ */
+@Service
+public class AvatarThumbnailService {
+    private static final Logger logger = LoggerFactory.getLogger(AvatarThumbnailService.class);
+
+    private final FileStorageService fileStorageService;
+    private final UserRepository userRepo;
+    private final UserProfileService userProfileService;
+    private final int[] sizes;
+    private final ThreadPoolExecutor workers;
+
+    public AvatarThumbnailService(FileStorageService fileStorageService, UserRepository userRepo,
+                                  UserProfileService userProfileService,
+                                  @Value("${app.avatars.variant-sizes:48,96,200}") int[] sizes,
+                                  @Value("${app.avatars.workers:2}") int workerCount,
+                                  @Value("${app.avatars.queue-capacity:100}") int queueCapacity) {
+        this.fileStorageService = fileStorageService;
+        this.userRepo = userRepo;
+        this.userProfileService = userProfileService;
+        this.sizes = Arrays.stream(sizes).sorted().toArray();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "avatar-thumbnail-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues variant generation for a stored blob. When the queue is full the job is dropped and clients keep
+     * receiving the original image.
+     */
+    public void generateVariantsAsync(String key) {
+        if (key == null) return;
+        try {
+            workers.execute(() -> generateVariants(key));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Thumbnail queue full, skipping variants for {}", key);
+        }
+    }
+
+    /**
+     * Picks the smallest variant that is at least {@code requestedSize} pixels, falling back to the original.
+     */
+    public static String variantFor(String key, String availableSizes, int requestedSize) {
+        if (availableSizes == null || availableSizes.isBlank() || requestedSize <= 0) return key;
+        return Arrays.stream(availableSizes.split(","))
+                .mapToInt(Integer::parseInt)
+                .filter(size -> size >= requestedSize)
+                .min()
+                .stream()
+                .mapToObj(size -> variantKey(key, size))
+                .findFirst()
+                .orElse(key);
+    }
+
+    static String variantKey(String key, int size) {
+        int dot = key.lastIndexOf('.');
+        String base = dot < 0 ? key : key.substring(0, dot);
+        return base + "_" + size + "." + variantFormat(key);
+    }
+
+    private static String variantFormat(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".jpg") || lower.endsWith(".jpeg") ? "jpg" : "png";
+    }
+
+    void generateVariants(String key) {
+        try {
+            Path original = fileStorageService.resolve(key);
+            BufferedImage image = null;
+            StringBuilder generated = new StringBuilder();
+            for (int size : sizes) {
+                Path target = fileStorageService.resolve(variantKey(key, size));
+                if (!Files.exists(target)) {
+                    if (image == null) image = readForDownscale(original, sizes[sizes.length - 1]);
+                    if (image == null) {
+                        logger.info("Blob {} is not a decodable image, no variants generated", key);
+                        return;
+                    }
+                    if (Math.min(image.getWidth(), image.getHeight()) < size) continue;
+                    write(squareThumbnail(image, size), variantFormat(key), target);
+                }
+                if (!generated.isEmpty()) generated.append(',');
+                generated.append(size);
+            }
+            recordVariants(key, generated.toString());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to generate variants for {}", key, e);
+        }
+    }
+
+    private void recordVariants(String key, String variants) {
+        if (variants.isEmpty()) return;
+        userRepo.updateAvatarVariants(key, variants);
+        List<Long> userIds = userRepo.findIdsByAvatarFileName(key);
+        userIds.forEach(userProfileService::evict);
+        logger.info("Recorded avatar variants {} for {} on users {}", variants, key,
+                userIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+
+    /**
+     * Decodes the image with source subsampling so that large uploads are never fully materialized when only
+     * small variants are needed.
+     */
+    private static BufferedImage readForDownscale(Path path, int largestVariant) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int shortSide = Math.min(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, shortSide / (largestVariant * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage squareThumbnail(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        int x = (source.getWidth() - side) / 2;
+        int y = (source.getHeight() - side) / 2;
+        BufferedImage thumbnail = new BufferedImage(size, size,
+                source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, size, size, x, y, x + side, y + side, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if ("jpg".equals(format)) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(0.85f);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+}
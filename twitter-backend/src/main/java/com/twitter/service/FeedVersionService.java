@@ -0,0 +1,88 @@
+package com.twitter.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.twitter.config.ReadYourWritesFilter;
+import com.twitter.repository.PostRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version marker of the global feed, used as its ETag: the newest post id, one primary-key index lookup, plus a
+ * counter of local changes. The counter covers what a new id does not reveal: deleted posts, deleted or renamed
+ * authors, and posts whose pooled ids commit out of order. The process start time keeps a marker issued before
+ * a restart from matching one issued after it; the profile and user-posts tags carry it too, see {@link #instance()}.
+ * <p>
+ * With a read replica configured, the counter moves when the primary commits but the page may still be read
+ * from a lagging replica. For the read-your-writes window after a change no marker is issued, so a stale page
+ * is never cached under a new tag. The same applies to an author's posts, whose marker comes from the primary,
+ * but only for that author's own changes. Without a replica there is no window.
+ */
+@Service
+public class FeedVersionService {
+    private final PostRepository postRepo;
+    private final long settleMillis;
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long lastChangeAt;
+    // Authors changed within the window; entries expire by themselves. Null without a window.
+    private final Cache<Long, Boolean> unsettledAuthors;
+
+    @Autowired
+    public FeedVersionService(PostRepository postRepo, ObjectProvider<ReadYourWritesFilter> readYourWrites) {
+        this(postRepo, readYourWrites.stream()
+                .mapToLong(ReadYourWritesFilter::getStickyWindowMillis)
+                .findFirst()
+                .orElse(0));
+    }
+
+    FeedVersionService(PostRepository postRepo, long settleMillis) {
+        this.postRepo = postRepo;
+        this.settleMillis = settleMillis;
+        this.unsettledAuthors = settleMillis > 0
+                ? Caffeine.newBuilder().expireAfterWrite(Duration.ofMillis(settleMillis)).build()
+                : null;
+    }
+
+    /**
+     * Marker of this process run. Versions and counters start over with the default in-memory database, so tags
+     * built from them include it to never match a tag issued before a restart.
+     */
+    public String instance() {
+        return instance;
+    }
+
+    /** Call after a change to the feed has committed. */
+    public void changed() {
+        lastChangeAt = System.currentTimeMillis();
+        changes.incrementAndGet();
+    }
+
+    /** Call after a change to the feed that also changes {@code authorId}'s posts has committed. */
+    public void changed(long authorId) {
+        if (unsettledAuthors != null) unsettledAuthors.put(authorId, Boolean.TRUE);
+        changed();
+    }
+
+    /** Whether every reader, replicas included, has had time to see the last change to the feed. */
+    public boolean settled() {
+        return System.currentTimeMillis() - lastChangeAt >= settleMillis;
+    }
+
+    /** Whether every reader has had time to see the last change to {@code authorId}'s posts. */
+    public boolean settled(long authorId) {
+        return unsettledAuthors == null || unsettledAuthors.getIfPresent(authorId) == null;
+    }
+
+    /** The current marker, or {@code null} until the last change has {@linkplain #settled() settled}. */
+    public String etag() {
+        // Counter first, then the id, then (in the caller) the body: the tag never describes a newer state than the body.
+        long changeCount = changes.get();
+        if (!settled()) return null;
+        return "W/\"feed-" + instance + "-" + changeCount + "-" + postRepo.findMaxId() + "\"";
+    }
+}
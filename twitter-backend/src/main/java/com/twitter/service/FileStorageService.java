@@ -1,21 +1,268 @@
 package com.twitter.service;
 
+import com.twitter.exception.UploadRejectedException;
+import com.twitter.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.twitter.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 
-import java.util.UUID;
-
+/**
+ * Content-addressed blob store for uploads. Each blob is keyed by the SHA-256 of its content and lives under a
+ * two-level hex fan-out ({@code ab/cd/abcd...ef.jpg}), so identical uploads are stored once and no directory
+ * grows beyond a few entries. Blobs are reference-counted through {@code User.avatarFileName}.
+ */
 @Service
 public class FileStorageService {
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,8}");
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path uploadDir;
+    private final UserRepository userRepo;
+    private final Semaphore uploadPermits;
+    private final long acquireTimeoutMillis;
+    private final long gcDelayMillis;
+    private final Timer storedTimer;
+    private final Timer deduplicatedTimer;
+    private final Timer failedTimer;
+    private final Timer permitWaitTimer;
+    private final Counter rejectedUploads;
+    private final DistributionSummary uploadBytes;
+    private final ReentrantLock[] blobLocks = new ReentrantLock[LOCK_STRIPES];
+    private final ScheduledExecutorService gcExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "blob-gc");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FileStorageService(@Value("${app.uploads.dir:uploads}") String uploadDir,
+                              @Value("${app.uploads.max-concurrent:8}") int maxConcurrentUploads,
+                              @Value("${app.uploads.acquire-timeout-ms:2000}") long acquireTimeoutMillis,
+                              @Value("${app.uploads.gc-delay-ms:30000}") long gcDelayMillis,
+                              UserRepository userRepo,
+                              MeterRegistry meterRegistry) {
+        this.uploadDir = Paths.get(uploadDir);
+        this.uploadPermits = new Semaphore(maxConcurrentUploads, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.gcDelayMillis = gcDelayMillis;
+        this.userRepo = userRepo;
+        for (int i = 0; i < LOCK_STRIPES; i++) blobLocks[i] = new ReentrantLock();
+
+        this.storedTimer = uploadTimer(meterRegistry, "stored");
+        this.deduplicatedTimer = uploadTimer(meterRegistry, "deduplicated");
+        this.failedTimer = uploadTimer(meterRegistry, "failed");
+        this.permitWaitTimer = Timer.builder("uploads.permit.wait")
+                .description("Time spent waiting for an upload slot")
+                .register(meterRegistry);
+        this.rejectedUploads = Counter.builder("uploads.rejected")
+                .description("Uploads turned away because every slot stayed busy")
+                .register(meterRegistry);
+        this.uploadBytes = DistributionSummary.builder("uploads.size")
+                .description("Size of accepted uploads")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("uploads.active", uploadPermits, permits -> maxConcurrentUploads - permits.availablePermits())
+                .description("Uploads currently being written")
+                .register(meterRegistry);
+    }
+
+    private static Timer uploadTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("uploads.duration")
+                .description("Time to stream, hash and store an upload, excluding the wait for a slot")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public static String urlFor(String key) {
+        return "uploads/" + key;
+    }
+
+    /**
+     * Streams the upload into a temp file while hashing it, then atomically renames it to its content key.
+     * If a blob with the same content already exists the temp file is discarded instead. The content is never
+     * buffered on the heap, and at most {@code app.uploads.max-concurrent} uploads are written at once.
+     *
+     * @return the storage key, relative to the upload directory
+     */
     public String saveFile(MultipartFile file) throws IOException {
-        String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-        Path path = Paths.get("uploads/" + fileName);
-        Files.createDirectories(path.getParent());
-        Files.write(path, file.getBytes());
-        return "uploads/" + fileName;
+        acquirePermit();
+        long start = System.nanoTime();
+        Timer outcome = failedTimer;
+        try {
+            Files.createDirectories(uploadDir);
+            Path temp = Files.createTempFile(uploadDir, "upload-", ".tmp");
+            try {
+                MessageDigest digest = sha256();
+                long size;
+                try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                     OutputStream out = Files.newOutputStream(temp)) {
+                    size = in.transferTo(out);
+                }
+                String hash = HexFormat.of().formatHex(digest.digest());
+                String key = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + extension(file);
+                Path target = uploadDir.resolve(key);
+
+                ReentrantLock lock = lockFor(hash);
+                lock.lock();
+                try {
+                    if (Files.exists(target)) {
+                        // Refresh the timestamp so a pending collection of this blob sees it as recently used.
+                        Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                        outcome = deduplicatedTimer;
+                    } else {
+                        Files.createDirectories(target.getParent());
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                        outcome = storedTimer;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                uploadBytes.record(size);
+                return key;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            uploadPermits.release();
+        }
+    }
+
+    /**
+     * Resolves a storage key to its file without touching the file system, rejecting keys that escape the
+     * upload directory.
+     */
+    public Path resolve(String key) {
+        Path root = uploadDir.toAbsolutePath().normalize();
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) throw new ResourceNotFoundException("File not found: " + key);
+        return path;
+    }
+
+    public Resource open(Path path) {
+        return new FileSystemResource(path);
     }
-}
 
+    /**
+     * Deletes the blob once no user references it any more. The check is deferred by
+     * {@code app.uploads.gc-delay-ms} so that a concurrent upload of the same content has time to commit
+     * its reference.
+     */
+    public void releaseIfUnreferenced(String key) {
+        if (key == null || key.isBlank()) return;
+        if (gcDelayMillis <= 0) {
+            collect(key);
+        } else {
+            gcExecutor.schedule(() -> collect(key), gcDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void collect(String key) {
+        Path blob = uploadDir.resolve(key);
+        ReentrantLock lock = lockFor(blob.getFileName().toString());
+        lock.lock();
+        try {
+            if (userRepo.countByAvatarFileName(key) > 0) return;
+            FileTime lastModified = Files.getLastModifiedTime(blob);
+            long age = System.currentTimeMillis() - lastModified.toMillis();
+            if (age < gcDelayMillis) {
+                // Used again meanwhile; its reference may still fail to commit, so look again once it has aged.
+                gcExecutor.schedule(() -> collect(key), gcDelayMillis - age, TimeUnit.MILLISECONDS);
+                return;
+            }
+            Files.delete(blob);
+            deleteDerivedFiles(blob);
+            logger.info("Deleted unreferenced blob {}", key);
+        } catch (NoSuchFileException e) {
+            // already collected
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to collect blob {}", key, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Derived files (e.g. resized variants) are stored next to their blob as {@code <hash>_<suffix>}. Keys with the
+     * same content but another extension share them, so they go with the last blob of that hash.
+     */
+    private static void deleteDerivedFiles(Path blob) throws IOException {
+        String name = blob.getFileName().toString();
+        int dot = name.indexOf('.');
+        String hash = dot < 0 ? name : name.substring(0, dot);
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(blob.getParent(), hash + ".*")) {
+            if (siblings.iterator().hasNext()) return;
+        }
+        try (DirectoryStream<Path> derived = Files.newDirectoryStream(blob.getParent(), hash + "_*")) {
+            for (Path file : derived) Files.deleteIfExists(file);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        gcExecutor.shutdown();
+    }
+
+    private ReentrantLock lockFor(String hash) {
+        return blobLocks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    private void acquirePermit() throws IOException {
+        long start = System.nanoTime();
+        try {
+            boolean acquired = uploadPermits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+            permitWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                rejectedUploads.increment();
+                throw new UploadRejectedException("Too many concurrent uploads, please retry shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an upload slot");
+        }
+    }
+
+    private static String extension(MultipartFile file) {
+        String ext = StringUtils.getFilenameExtension(StringUtils.cleanPath(String.valueOf(file.getOriginalFilename())));
+        ext = ext == null ? "" : ext.toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(ext).matches() ? ext : "bin";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
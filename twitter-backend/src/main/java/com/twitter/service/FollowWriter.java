@@ -0,0 +1,58 @@
+package com.twitter.service;
+
+import com.twitter.model.Follow;
+import com.twitter.repository.FollowRepository;
+import com.twitter.repository.UserRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Changes the follow graph together with the {@code followerCount} and {@code followingCount} of the users
+ * involved, in one transaction. Callers evict cached profiles after these methods return, once committed.
+ */
+@Service
+public class FollowWriter {
+    private final FollowRepository followRepo;
+    private final UserRepository userRepo;
+
+    public FollowWriter(FollowRepository followRepo, UserRepository userRepo) {
+        this.followRepo = followRepo;
+        this.userRepo = userRepo;
+    }
+
+    @Transactional
+    public Follow follow(Follow follow) {
+        Follow saved = followRepo.save(follow);
+        adjustCounts(follow.getFollower().getId(), follow.getFollowee().getId(), 1);
+        return saved;
+    }
+
+    /** Returns whether a follow was removed; the counters only move if this call deleted the row. */
+    @Transactional
+    public boolean unfollow(Long followerId, Long followeeId) {
+        if (followRepo.deleteFollow(followerId, followeeId) == 0) return false;
+        adjustCounts(followerId, followeeId, -1);
+        return true;
+    }
+
+    /**
+     * Removes up to {@code chunkSize} follows from or to {@code userId}, taking back the counts they contributed
+     * to the other users, and returns how many went.
+     */
+    @Transactional
+    public int removeChunkInvolving(Long userId, int chunkSize) {
+        List<Long> ids = followRepo.findIdsInvolving(userId, Limit.of(chunkSize));
+        if (ids.isEmpty()) return 0;
+        userRepo.decrementFollowerCountsOfFollowees(userId, ids);
+        userRepo.decrementFollowingCountsOfFollowers(userId, ids);
+        return followRepo.deleteByIdIn(ids);
+    }
+
+    private void adjustCounts(Long followerId, Long followeeId, long delta) {
+        userRepo.adjustFollowingCount(followerId, delta);
+        userRepo.adjustFollowerCount(followeeId, delta);
+    }
+}
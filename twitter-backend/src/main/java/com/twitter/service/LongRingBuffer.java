@@ -0,0 +1,56 @@
+package com.twitter.service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity ring of primitive post ids, newest last. Once full, each append overwrites the oldest id,
+ * so a timeline never holds more than {@code capacity} entries.
+ */
+final class LongRingBuffer {
+    private final long[] ids;
+    private int head;
+    private int size;
+
+    LongRingBuffer(int capacity) {
+        this.ids = new long[capacity];
+    }
+
+    synchronized void add(long id) {
+        ids[head] = id;
+        head = (head + 1) % ids.length;
+        if (size < ids.length) size++;
+    }
+
+    /**
+     * Merges older ids (e.g. loaded from the database) with whatever was appended concurrently,
+     * keeping the newest {@code capacity} distinct ids in ascending order.
+     */
+    synchronized void seed(long[] olderIds) {
+        long[] merged = Arrays.copyOf(olderIds, olderIds.length + size);
+        for (int i = 0; i < size; i++) {
+            merged[olderIds.length + i] = ids[Math.floorMod(head - size + i, ids.length)];
+        }
+        long[] distinct = Arrays.stream(merged).sorted().distinct().toArray();
+        int keep = Math.min(distinct.length, ids.length);
+        System.arraycopy(distinct, distinct.length - keep, ids, 0, keep);
+        size = keep;
+        head = keep % ids.length;
+    }
+
+    /**
+     * Returns up to {@code limit} ids strictly below {@code beforeId}, newest first.
+     */
+    synchronized long[] latest(long beforeId, int limit) {
+        long[] page = new long[Math.min(limit, size)];
+        int count = 0;
+        for (int i = 1; i <= size && count < page.length; i++) {
+            long id = ids[Math.floorMod(head - i, ids.length)];
+            if (id < beforeId) page[count++] = id;
+        }
+        return count == page.length ? page : Arrays.copyOf(page, count);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,166 @@
+package com.twitter.service;
+
+import com.twitter.model.PostCursor;
+import com.twitter.model.PostDto;
+import com.twitter.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process publish/subscribe bus that pushes newly created posts to Server-Sent Event subscribers.
+ * <p>
+ * Publishing never blocks: each subscriber has a bounded buffer drained by its own task, and a subscriber
+ * whose buffer overflows is disconnected (it can resume later with {@code Last-Event-ID}). Idle connections
+ * receive periodic heartbeat comments so proxies keep them open.
+ */
+@Service
+public class PostEventBus {
+    private static final Logger logger = LoggerFactory.getLogger(PostEventBus.class);
+    private static final Comparator<PostDto> KEYSET = Comparator.comparing(PostDto::getCreatedAt).thenComparing(PostDto::getId);
+    private static final Object HEARTBEAT = new Object();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final PostRepository postRepo;
+    private final int bufferSize;
+    private final int replayLimit;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PostEventBus(PostRepository postRepo,
+                        @Value("${app.stream.buffer-size:256}") int bufferSize,
+                        @Value("${app.stream.replay-limit:500}") int replayLimit,
+                        @Value("${app.stream.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.postRepo = postRepo;
+        this.bufferSize = bufferSize;
+        this.replayLimit = replayLimit;
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers the emitter and, when the client is resuming from {@code since}, replays the posts it missed
+     * (oldest first) before switching to live delivery. The subscriber is registered before the replay query runs,
+     * so posts published meanwhile are buffered and delivered afterwards, minus any the replay already covered.
+     * A gap larger than the replay limit sends a {@code resync} event telling the client to reload instead.
+     */
+    public void subscribe(SseEmitter emitter, PostCursor since) {
+        Subscriber subscriber = new Subscriber(emitter);
+        subscriber.draining.set(true);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        try {
+            if (since != null) {
+                List<PostDto> missed = postRepo.findNewerThan(since.getCreatedAt(), since.getId(), Limit.of(replayLimit + 1));
+                if (missed.size() > replayLimit) {
+                    emitter.send(SseEmitter.event().name("resync").data(""));
+                } else {
+                    for (PostDto post : missed) subscriber.send(post);
+                    if (!missed.isEmpty()) subscriber.replayedUpTo = missed.get(missed.size() - 1);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            disconnect(subscriber);
+            return;
+        }
+        subscriber.draining.set(false);
+        subscriber.scheduleDrain();
+    }
+
+    public void publish(PostDto post) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.buffer.offer(post)) {
+                logger.info("Disconnecting slow SSE subscriber after {} buffered events", bufferSize);
+                disconnect(subscriber);
+                continue;
+            }
+            subscriber.scheduleDrain();
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            // A full buffer means the subscriber already has pending data; no heartbeat needed.
+            if (subscriber.buffer.offer(HEARTBEAT)) subscriber.scheduleDrain();
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(this::disconnect);
+        senders.shutdown();
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile PostDto replayedUpTo;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void scheduleDrain() {
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        /**
+         * Single writer per subscriber: only the task that won the {@code draining} flag sends.
+         */
+        private void drain() {
+            try {
+                Object event;
+                while ((event = buffer.poll()) != null) {
+                    if (event == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else if (replayedUpTo == null || KEYSET.compare((PostDto) event, replayedUpTo) > 0) {
+                        send((PostDto) event);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                disconnect(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            scheduleDrain();
+        }
+
+        void send(PostDto post) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(PostCursor.of(post).encode())
+                    .name("post")
+                    .data(post));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.twitter.service;
+
+import com.twitter.exception.IngestionRejectedException;
+import com.twitter.model.Post;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Persists new posts either directly (one insert and commit per call) or write-behind: posts are queued in a
+ * bounded buffer and a single flusher thread writes them as one JDBC batch per transaction, completing each
+ * caller's future only once its batch has committed. Either way the authors' post counters are updated in
+ * the same transaction, see {@link PostWriter}. A full buffer rejects the post instead of growing.
+ */
+@Service
+public class PostIngestionService {
+    private static final Logger logger = LoggerFactory.getLogger(PostIngestionService.class);
+
+    private final PostWriter postWriter;
+    private final boolean batched;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending> queue;
+    private final ExecutorService completions = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public PostIngestionService(PostWriter postWriter,
+                                @Value("${app.ingestion.mode:direct}") String mode,
+                                @Value("${app.ingestion.batch-size:50}") int batchSize,
+                                @Value("${app.ingestion.queue-capacity:10000}") int queueCapacity,
+                                @Value("${app.ingestion.max-delay-ms:5}") long maxDelayMillis) {
+        this.postWriter = postWriter;
+        this.batched = "batched".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        if (batched) {
+            flusher = new Thread(this::flushLoop, "post-ingest");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    public CompletableFuture<Post> submit(Post post) {
+        if (!batched) {
+            return CompletableFuture.completedFuture(postWriter.save(post));
+        }
+        Pending pending = new Pending(post, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new IngestionRejectedException("Too many pending posts, please retry shortly");
+        }
+        return pending.result;
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                // Group commit: linger briefly so concurrent writers share the transaction.
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Stop accepting work but keep draining so queued callers still get an answer.
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<Pending> batch) {
+        List<Post> posts = batch.stream().map(Pending::post).toList();
+        try {
+            List<Post> saved = postWriter.saveAll(posts);
+            for (int i = 0; i < batch.size(); i++) {
+                CompletableFuture<Post> result = batch.get(i).result;
+                Post post = saved.get(i);
+                // Callers' follow-up work must not run on, and stall, the flusher thread.
+                completions.execute(() -> result.complete(post));
+            }
+        } catch (RuntimeException e) {
+            logger.info("Failed to write batch of {} posts: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> completions.execute(() -> pending.result.completeExceptionally(e)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (flusher != null) flusher.join(TimeUnit.SECONDS.toMillis(10));
+        completions.shutdown();
+    }
+
+    record Pending(Post post, CompletableFuture<Post> result) {
+    }
+}
@@ -0,0 +1,277 @@
+package com.twitter.service;
+
+import com.twitter.model.PostDto;
+import com.twitter.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process full-text index over post content. Each term maps to a compressed {@link PostingList} carrying
+ * term frequencies, document lengths and positions, which is enough for BM25 ranking and phrase matching
+ * without touching the database. New posts are indexed as they are created; the whole index is rebuilt in the
+ * background at startup. Posts indexed while the rebuild runs are held back until it is done, so the rebuild only
+ * ever appends to the posting lists.
+ * <p>
+ * Queries are conjunctive: every bare term and every {@code "quoted phrase"} must match.
+ */
+@Service
+public class PostSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchService.class);
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final PostRepository postRepo;
+    private final int rebuildBatchSize;
+    private final ConcurrentHashMap<String, PostingList> postings = new ConcurrentHashMap<>();
+    private final LongAdder documents = new LongAdder();
+    private final LongAdder totalLength = new LongAdder();
+    private volatile boolean ready;
+    // Index calls deferred while a rebuild runs; null otherwise.
+    private List<Runnable> deferred;
+
+    public PostSearchService(PostRepository postRepo,
+                             @Value("${app.search.rebuild-batch-size:5000}") int rebuildBatchSize) {
+        this.postRepo = postRepo;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread thread = new Thread(this::rebuild, "search-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Indexes every stored post in id order, one keyset batch at a time, then replays the index calls that came
+     * in meanwhile. A post seen by both paths is only counted once.
+     */
+    void rebuild() {
+        long started = System.nanoTime();
+        long afterId = 0;
+        int indexed = 0;
+        synchronized (this) {
+            deferred = new ArrayList<>();
+        }
+        try {
+            List<PostDto> batch;
+            do {
+                batch = postRepo.findDtosAfterId(afterId, Limit.of(rebuildBatchSize));
+                for (PostDto post : batch) {
+                    indexNow(post.getId(), post.getContent());
+                    afterId = post.getId();
+                }
+                indexed += batch.size();
+            } while (batch.size() == rebuildBatchSize);
+        } finally {
+            replayDeferred();
+        }
+        ready = true;
+        logger.info("Search index rebuilt from {} posts ({} terms) in {} ms", indexed, postings.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Whether the startup rebuild has finished; until then searches only see part of the stored posts.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void replayDeferred() {
+        while (true) {
+            List<Runnable> calls;
+            synchronized (this) {
+                if (deferred.isEmpty()) {
+                    deferred = null;
+                    return;
+                }
+                calls = deferred;
+                deferred = new ArrayList<>();
+            }
+            calls.forEach(Runnable::run);
+        }
+    }
+
+    public void index(long postId, String content) {
+        synchronized (this) {
+            if (deferred != null) {
+                deferred.add(() -> indexNow(postId, content));
+                return;
+            }
+        }
+        indexNow(postId, content);
+    }
+
+    private void indexNow(long postId, String content) {
+        List<String> tokens = tokenize(content);
+        if (tokens.isEmpty()) return;
+
+        Map<String, List<Integer>> positionsByTerm = new LinkedHashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            positionsByTerm.computeIfAbsent(tokens.get(i), term -> new ArrayList<>()).add(i);
+        }
+        boolean first = true;
+        for (Map.Entry<String, List<Integer>> entry : positionsByTerm.entrySet()) {
+            int[] positions = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            boolean added = postings.computeIfAbsent(entry.getKey(), term -> new PostingList())
+                    .add(postId, positions, tokens.size());
+            // The first term decides: if it already had this post, the post was indexed before.
+            if (first && !added) return;
+            first = false;
+        }
+        documents.increment();
+        totalLength.add(tokens.size());
+    }
+
+    /**
+     * Drops a deleted post; {@code content} must be what it was indexed with.
+     */
+    public void remove(long postId, String content) {
+        synchronized (this) {
+            if (deferred != null) {
+                deferred.add(() -> removeNow(postId, content));
+                return;
+            }
+        }
+        removeNow(postId, content);
+    }
+
+    private void removeNow(long postId, String content) {
+        List<String> tokens = tokenize(content);
+        boolean first = true;
+        for (String term : new LinkedHashSet<>(tokens)) {
+            PostingList list = postings.get(term);
+            boolean removed = list != null && list.remove(postId);
+            // As in indexNow, the first term tells whether the post is in the index at all.
+            if (first && !removed) return;
+            first = false;
+        }
+        if (first) return;
+        documents.decrement();
+        totalLength.add(-tokens.size());
+    }
+
+    /**
+     * Returns post ids matching {@code query}, best BM25 score first, skipping the first {@code offset} hits.
+     */
+    public List<Long> search(String query, int offset, int limit) {
+        List<List<String>> phrases = new ArrayList<>();
+        Set<String> terms = new LinkedHashSet<>();
+        parseQuery(query, terms, phrases);
+        if (terms.isEmpty()) return List.of();
+
+        List<String> order = new ArrayList<>(terms);
+        PostingList.Cursor[] cursors = new PostingList.Cursor[order.size()];
+        double[] idf = new double[order.size()];
+        double n = Math.max(1, documents.sum());
+        double averageLength = Math.max(1.0, totalLength.sum() / n);
+        List<PostingList.Snapshot> snapshots = new ArrayList<>();
+        for (String term : order) {
+            PostingList list = postings.get(term);
+            if (list == null) return List.of();
+            snapshots.add(list.snapshot());
+        }
+        // Drive the intersection from the rarest term.
+        Integer[] byRarity = new Integer[order.size()];
+        for (int i = 0; i < byRarity.length; i++) byRarity[i] = i;
+        Arrays.sort(byRarity, Comparator.comparingInt(i -> snapshots.get(i).docCount()));
+        for (int i = 0; i < byRarity.length; i++) {
+            PostingList.Snapshot snapshot = snapshots.get(byRarity[i]);
+            cursors[i] = snapshot.cursor();
+            idf[i] = Math.log(1 + (n - snapshot.docCount() + 0.5) / (snapshot.docCount() + 0.5));
+        }
+        String[] sortedTerms = new String[order.size()];
+        for (int i = 0; i < byRarity.length; i++) sortedTerms[i] = order.get(byRarity[i]);
+
+        int wanted = offset + limit;
+        PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score).thenComparingLong(Hit::postId));
+        PostingList.Cursor lead = cursors[0];
+        candidates:
+        while (lead.next()) {
+            long doc = lead.doc();
+            for (int i = 1; i < cursors.length; i++) {
+                if (!cursors[i].advance(doc)) break candidates;
+                if (cursors[i].doc() != doc) continue candidates;
+            }
+            if (!phrases.isEmpty() && !matchesPhrases(phrases, sortedTerms, cursors)) continue;
+
+            double score = 0;
+            for (int i = 0; i < cursors.length; i++) {
+                double tf = cursors[i].frequency();
+                double norm = K1 * (1 - B + B * cursors[i].docLength() / averageLength);
+                score += idf[i] * tf * (K1 + 1) / (tf + norm);
+            }
+            // Docs arrive in ascending id order, so replacing on ties keeps the newer post.
+            if (top.size() < wanted) {
+                top.add(new Hit(doc, score));
+            } else if (score >= top.peek().score()) {
+                top.poll();
+                top.add(new Hit(doc, score));
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Comparator.comparingLong(Hit::postId).reversed()));
+        return ranked.stream().skip(offset).map(Hit::postId).toList();
+    }
+
+    private static boolean matchesPhrases(List<List<String>> phrases, String[] terms, PostingList.Cursor[] cursors) {
+        Map<String, int[]> positions = new HashMap<>();
+        for (int i = 0; i < terms.length; i++) positions.put(terms[i], cursors[i].positions());
+        for (List<String> phrase : phrases) {
+            if (!matchesPhrase(phrase, positions)) return false;
+        }
+        return true;
+    }
+
+    private static boolean matchesPhrase(List<String> phrase, Map<String, int[]> positions) {
+        for (int start : positions.get(phrase.get(0))) {
+            boolean matched = true;
+            for (int k = 1; k < phrase.size() && matched; k++) {
+                matched = Arrays.binarySearch(positions.get(phrase.get(k)), start + k) >= 0;
+            }
+            if (matched) return true;
+        }
+        return false;
+    }
+
+    private static void parseQuery(String query, Set<String> terms, List<List<String>> phrases) {
+        String[] parts = query.split("\"", -1);
+        for (int i = 0; i < parts.length; i++) {
+            List<String> tokens = tokenize(parts[i]);
+            terms.addAll(tokens);
+            // Odd segments sit between quotes; an unterminated quote is treated as plain terms.
+            boolean quoted = i % 2 == 1 && i < parts.length - 1;
+            if (quoted && tokens.size() > 1) phrases.add(tokens);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private record Hit(long postId, double score) {
+    }
+}
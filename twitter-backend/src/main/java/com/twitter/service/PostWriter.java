@@ -0,0 +1,93 @@
+package com.twitter.service;
+
+import com.twitter.model.Post;
+import com.twitter.model.PostDto;
+import com.twitter.repository.PostRepository;
+import com.twitter.repository.UserRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Writes and deletes posts together with their authors' {@code postCount}, in one transaction, so the counter
+ * commits or rolls back with the rows it counts. Deleted posts leave the search index once the delete commits.
+ */
+@Service
+public class PostWriter {
+    private final PostRepository postRepo;
+    private final UserRepository userRepo;
+    private final PostSearchService postSearchService;
+
+    public PostWriter(PostRepository postRepo, UserRepository userRepo, PostSearchService postSearchService) {
+        this.postRepo = postRepo;
+        this.userRepo = userRepo;
+        this.postSearchService = postSearchService;
+    }
+
+    @Transactional
+    public Post save(Post post) {
+        Post saved = postRepo.save(post);
+        userRepo.adjustPostCount(post.getUser().getId(), 1);
+        return saved;
+    }
+
+    /**
+     * Saves a batch with one counter update per distinct author. Authors are updated in id order so that
+     * concurrent batches lock their rows in the same order.
+     */
+    @Transactional
+    public List<Post> saveAll(List<Post> posts) {
+        List<Post> saved = postRepo.saveAll(posts);
+        Map<Long, Long> postsByAuthor = new TreeMap<>();
+        for (Post post : posts) postsByAuthor.merge(post.getUser().getId(), 1L, Long::sum);
+        postsByAuthor.forEach(userRepo::adjustPostCount);
+        return saved;
+    }
+
+    /**
+     * Deletes a post and returns its author's id, or empty if it was already gone. Only the caller whose
+     * delete removed the row decrements the counter.
+     */
+    @Transactional
+    public Optional<Long> delete(Long postId) {
+        Optional<PostDto> post = postRepo.findDtoById(postId);
+        if (post.isEmpty() || postRepo.deletePost(postId) == 0) return Optional.empty();
+        userRepo.adjustPostCount(post.get().getUserId(), -1);
+        unindexAfterCommit(post.get());
+        return Optional.of(post.get().getUserId());
+    }
+
+    /**
+     * Deletes up to {@code chunkSize} posts of {@code authorId} in one short transaction and returns how many
+     * went, so the author's {@code postCount} doubles as the number of posts still to purge.
+     */
+    @Transactional
+    public int deleteChunkByAuthor(Long authorId, int chunkSize) {
+        List<PostDto> posts = postRepo.findDtosByUser(authorId, Limit.of(chunkSize));
+        if (posts.isEmpty()) return 0;
+        int deleted = postRepo.deleteByIdIn(posts.stream().map(PostDto::getId).toList());
+        userRepo.adjustPostCount(authorId, -deleted);
+        posts.forEach(this::unindexAfterCommit);
+        return deleted;
+    }
+
+    private void unindexAfterCommit(PostDto post) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            postSearchService.remove(post.getId(), post.getContent());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                postSearchService.remove(post.getId(), post.getContent());
+            }
+        });
+    }
+}
@@ -0,0 +1,371 @@
+package com.twitter.service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Append-mostly posting list for one term, stored as a single varint-encoded byte array. Each entry is
+ * {@code docDelta, termFrequency, docLength, positionDelta...}; doc ids ascend, so deltas are small and most
+ * values fit in one byte. Readers work on an immutable {@link Snapshot}: bytes below the published length are
+ * never rewritten in place. Every {@value #SKIP_INTERVAL}th entry gets a skip pointer so intersections can jump
+ * over long runs instead of decoding them.
+ * <p>
+ * Ids older than the last encoded one wait in a small sorted tail, and removed ids in a set. Snapshots carry
+ * both and their cursors apply them while decoding, so reads never re-encode the array. The pending changes are
+ * merged into the array only once they outgrow {@value #MIN_PENDING} entries and an eighth of the list, which
+ * keeps the amortized cost of a write at a few re-encoded entries.
+ */
+final class PostingList {
+    static final int SKIP_INTERVAL = 64;
+    static final int MIN_PENDING = 256;
+
+    private static final long[] NO_DOCS = new long[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private byte[] data = new byte[16];
+    private int length;
+    private int encodedCount;
+    private long lastDoc = -1;
+    // Skip i: the doc preceding entry (i+1)*SKIP_INTERVAL and the byte offset where that entry starts.
+    private long[] skipDocs = new long[0];
+    private int[] skipOffsets = new int[0];
+    private int skipCount;
+    private final TreeMap<Long, Entry> tail = new TreeMap<>();
+    private final Set<Long> removed = new HashSet<>();
+    // Sorted copies of tail and removed handed to snapshots; rebuilt after either changes.
+    private long[] tailDocs = NO_DOCS;
+    private Entry[] tailEntries = NO_ENTRIES;
+    private long[] removedDocs = NO_DOCS;
+    private boolean pendingChanged;
+
+    /**
+     * Adds a document; returns {@code false} if it is already present. Out-of-order ids (posts committed
+     * out of id order) go to the tail.
+     */
+    synchronized boolean add(long doc, int[] positions, int docLength) {
+        if (doc > lastDoc) {
+            appendInOrder(doc, positions, docLength);
+            return true;
+        }
+        if (tail.containsKey(doc)) return false;
+        if (removed.remove(doc)) {
+            // Still encoded, and a post's content never changes.
+            pendingChanged();
+            return true;
+        }
+        if (encodedContains(doc)) return false;
+        tail.put(doc, new Entry(positions, docLength));
+        pendingChanged();
+        return true;
+    }
+
+    /**
+     * Removes a document; returns {@code false} if it was not present.
+     */
+    synchronized boolean remove(long doc) {
+        if (tail.remove(doc) == null) {
+            if (removed.contains(doc) || !encodedContains(doc)) return false;
+            removed.add(doc);
+        }
+        pendingChanged();
+        return true;
+    }
+
+    synchronized Snapshot snapshot() {
+        if (pendingChanged) {
+            tailDocs = tail.keySet().stream().mapToLong(Long::longValue).toArray();
+            tailEntries = tail.values().toArray(NO_ENTRIES);
+            removedDocs = removed.stream().mapToLong(Long::longValue).sorted().toArray();
+            pendingChanged = false;
+        }
+        return new Snapshot(data, length, encodedCount, skipDocs, skipOffsets, skipCount,
+                tailDocs, tailEntries, removedDocs);
+    }
+
+    private void pendingChanged() {
+        pendingChanged = true;
+        if (tail.size() + removed.size() > Math.max(MIN_PENDING, encodedCount / 8)) merge();
+    }
+
+    private void appendInOrder(long doc, int[] positions, int docLength) {
+        if (encodedCount > 0 && encodedCount % SKIP_INTERVAL == 0) addSkip();
+        append(doc - lastDoc - 1, positions, docLength);
+        lastDoc = doc;
+        encodedCount++;
+    }
+
+    private Encoded encoded() {
+        return new Encoded(data, length, skipDocs, skipOffsets, skipCount);
+    }
+
+    private boolean encodedContains(long doc) {
+        Encoded cursor = encoded();
+        return cursor.advance(doc) && cursor.doc() == doc;
+    }
+
+    private void addSkip() {
+        if (skipCount == skipDocs.length) {
+            skipDocs = Arrays.copyOf(skipDocs, Math.max(4, skipCount * 2));
+            skipOffsets = Arrays.copyOf(skipOffsets, skipDocs.length);
+        }
+        skipDocs[skipCount] = lastDoc;
+        skipOffsets[skipCount] = length;
+        skipCount++;
+    }
+
+    private void append(long delta, int[] positions, int docLength) {
+        writeVarLong(delta);
+        writeVarLong(positions.length);
+        writeVarLong(docLength);
+        int previous = 0;
+        for (int position : positions) {
+            writeVarLong(position - previous);
+            previous = position;
+        }
+    }
+
+    private void merge() {
+        Encoded cursor = encoded();
+        PostingList merged = new PostingList();
+        Map.Entry<Long, Entry> pending = tail.pollFirstEntry();
+        while (cursor.next()) {
+            while (pending != null && pending.getKey() < cursor.doc()) {
+                merged.appendInOrder(pending.getKey(), pending.getValue().positions(), pending.getValue().docLength());
+                pending = tail.pollFirstEntry();
+            }
+            if (!removed.contains(cursor.doc())) {
+                merged.appendInOrder(cursor.doc(), cursor.positions(), cursor.docLength());
+            }
+        }
+        removed.clear();
+        // Every tail entry is below lastDoc, so the loop above consumed them all.
+        // Swap in a fresh array so concurrent readers of the old snapshot are unaffected.
+        data = merged.data;
+        length = merged.length;
+        encodedCount = merged.encodedCount;
+        lastDoc = merged.lastDoc;
+        skipDocs = merged.skipDocs;
+        skipOffsets = merged.skipOffsets;
+        skipCount = merged.skipCount;
+    }
+
+    private void writeVarLong(long value) {
+        if (length + 10 > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, length + 10));
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    record Entry(int[] positions, int docLength) {
+    }
+
+    /**
+     * Immutable view of the list: the encoded prefix plus the tail and removals pending at the time it was taken.
+     */
+    record Snapshot(byte[] data, int length, int encodedCount, long[] skipDocs, int[] skipOffsets, int skipCount,
+                    long[] tailDocs, Entry[] tailEntries, long[] removedDocs) {
+        int docCount() {
+            return encodedCount + tailDocs.length - removedDocs.length;
+        }
+
+        Cursor cursor() {
+            return new Cursor(this);
+        }
+    }
+
+    /**
+     * Forward-only cursor over a snapshot: walks the encoded entries and the tail side by side in doc order and
+     * passes over removed docs. Positions are decoded lazily, only for documents that need them.
+     */
+    static final class Cursor {
+        private final Encoded encoded;
+        private final long[] tailDocs;
+        private final Entry[] tailEntries;
+        private final long[] removedDocs;
+        private int tailIndex;
+        private int removedIndex;
+        // Whether the encoded cursor sits on a doc that has not been returned yet, or has run out.
+        private boolean encodedPending;
+        private boolean encodedDone;
+        private long doc = -1;
+        // The tail entry of the current doc, or null when it comes from the encoded array.
+        private Entry current;
+
+        private Cursor(Snapshot snapshot) {
+            this.encoded = new Encoded(snapshot.data(), snapshot.length(), snapshot.skipDocs(),
+                    snapshot.skipOffsets(), snapshot.skipCount());
+            this.tailDocs = snapshot.tailDocs();
+            this.tailEntries = snapshot.tailEntries();
+            this.removedDocs = snapshot.removedDocs();
+        }
+
+        boolean next() {
+            if (!encodedPending && !encodedDone) stepEncoded();
+            return select();
+        }
+
+        /**
+         * Advances to the first document {@code >= target}; returns {@code false} when the list is exhausted.
+         */
+        boolean advance(long target) {
+            if (doc >= target) return true;
+            while (tailIndex < tailDocs.length && tailDocs[tailIndex] < target) tailIndex++;
+            if (!encodedDone) {
+                encodedPending = encoded.advance(target);
+                encodedDone = !encodedPending;
+            }
+            return select();
+        }
+
+        long doc() {
+            return doc;
+        }
+
+        int frequency() {
+            return current != null ? current.positions().length : encoded.frequency();
+        }
+
+        int docLength() {
+            return current != null ? current.docLength() : encoded.docLength();
+        }
+
+        int[] positions() {
+            return current != null ? current.positions() : encoded.positions();
+        }
+
+        private void stepEncoded() {
+            encodedPending = encoded.next();
+            encodedDone = !encodedPending;
+        }
+
+        // Moves onto the smaller of the pending encoded doc and the next tail doc, skipping removed docs.
+        private boolean select() {
+            while (true) {
+                long fromEncoded = encodedPending ? encoded.doc() : Long.MAX_VALUE;
+                long fromTail = tailIndex < tailDocs.length ? tailDocs[tailIndex] : Long.MAX_VALUE;
+                if (fromTail < fromEncoded) {
+                    doc = fromTail;
+                    current = tailEntries[tailIndex++];
+                    return true;
+                }
+                if (!encodedPending) return false;
+                encodedPending = false;
+                if (!isRemoved(fromEncoded)) {
+                    doc = fromEncoded;
+                    current = null;
+                    return true;
+                }
+                stepEncoded();
+            }
+        }
+
+        private boolean isRemoved(long candidate) {
+            while (removedIndex < removedDocs.length && removedDocs[removedIndex] < candidate) removedIndex++;
+            return removedIndex < removedDocs.length && removedDocs[removedIndex] == candidate;
+        }
+    }
+
+    /**
+     * Forward-only decoder over the encoded entries alone.
+     */
+    private static final class Encoded {
+        private final byte[] data;
+        private final int end;
+        private final long[] skipDocs;
+        private final int[] skipOffsets;
+        private final int skipCount;
+        private int nextSkip;
+        private int offset;
+        private long doc = -1;
+        private int frequency;
+        private int docLength;
+        private int positionsOffset;
+        private boolean positionsRead = true;
+
+        private Encoded(byte[] data, int length, long[] skipDocs, int[] skipOffsets, int skipCount) {
+            this.data = data;
+            this.end = length;
+            this.skipDocs = skipDocs;
+            this.skipOffsets = skipOffsets;
+            this.skipCount = skipCount;
+        }
+
+        boolean next() {
+            if (!positionsRead) skipPositions();
+            if (offset >= end) return false;
+            doc += readVarLong() + 1;
+            frequency = (int) readVarLong();
+            docLength = (int) readVarLong();
+            positionsOffset = offset;
+            positionsRead = false;
+            return true;
+        }
+
+        boolean advance(long target) {
+            if (doc >= target) return true;
+            // Jump to the last skip whose preceding doc is still below the target; everything before it is too.
+            int skip = -1;
+            while (nextSkip < skipCount && skipDocs[nextSkip] < target) skip = nextSkip++;
+            if (skip >= 0 && skipOffsets[skip] > offset) {
+                offset = skipOffsets[skip];
+                doc = skipDocs[skip];
+                positionsRead = true;
+            }
+            while (doc < target) {
+                if (!next()) return false;
+            }
+            return true;
+        }
+
+        long doc() {
+            return doc;
+        }
+
+        int frequency() {
+            return frequency;
+        }
+
+        int docLength() {
+            return docLength;
+        }
+
+        int[] positions() {
+            offset = positionsOffset;
+            int[] positions = new int[frequency];
+            int previous = 0;
+            for (int i = 0; i < frequency; i++) {
+                previous += (int) readVarLong();
+                positions[i] = previous;
+            }
+            positionsRead = true;
+            return positions;
+        }
+
+        private void skipPositions() {
+            offset = positionsOffset;
+            for (int i = 0; i < frequency; i++) {
+                while ((data[offset++] & 0x80) != 0) {
+                    // continuation byte
+                }
+            }
+            positionsRead = true;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.twitter.service;
+
+import com.twitter.model.PostDto;
+import com.twitter.repository.PostRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Caches the first page of each user's posts, the page every profile view starts with. The entry holds one
+ * row more than {@link #FIRST_PAGE_SIZE} so callers can tell whether an older page exists, and is evicted
+ * whenever the user publishes.
+ */
+@Service
+public class RecentPostsService {
+    public static final String CACHE_NAME = "recentPosts";
+    public static final int FIRST_PAGE_SIZE = 20;
+
+    private final PostRepository postRepo;
+
+    public RecentPostsService(PostRepository postRepo) {
+        this.postRepo = postRepo;
+    }
+
+    @Cacheable(cacheNames = CACHE_NAME, key = "#userId", sync = true)
+    public List<PostDto> firstPage(Long userId) {
+        return List.copyOf(postRepo.findLatestByUser(userId, Limit.of(FIRST_PAGE_SIZE + 1)));
+    }
+
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#userId")
+    public void evict(Long userId) {
+        // eviction is performed by the cache aspect
+    }
+}
@@ -0,0 +1,77 @@
+package com.twitter.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-min sketch over a sliding time window. The window is a ring of time buckets, each its own sketch of
+ * {@code depth x width} atomic counters, so memory is fixed regardless of how many distinct keys are seen and
+ * writers never share a lock. Estimates never undercount; they may overcount by roughly
+ * {@code total / width} with high probability.
+ */
+final class SlidingWindowSketch {
+    private final int depth;
+    private final int widthMask;
+    private final int buckets;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final AtomicLongArray[] counts;
+    private final AtomicLongArray epochs;
+
+    SlidingWindowSketch(int depth, int width, int buckets, long bucketMillis, LongSupplier clock) {
+        if (Integer.bitCount(width) != 1) throw new IllegalArgumentException("width must be a power of two");
+        this.depth = depth;
+        this.widthMask = width - 1;
+        this.buckets = buckets;
+        this.bucketMillis = bucketMillis;
+        this.clock = clock;
+        this.counts = new AtomicLongArray[buckets];
+        for (int i = 0; i < buckets; i++) counts[i] = new AtomicLongArray(depth * width);
+        this.epochs = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) epochs.set(i, -1);
+    }
+
+    void add(String key) {
+        long epoch = clock.getAsLong() / bucketMillis;
+        int bucket = (int) (epoch % buckets);
+        long seen = epochs.get(bucket);
+        // First writer into a recycled bucket clears it; increments racing the clear are an accepted error.
+        if (seen != epoch && epochs.compareAndSet(bucket, seen, epoch)) {
+            AtomicLongArray stale = counts[bucket];
+            for (int i = 0; i < stale.length(); i++) stale.set(i, 0);
+        }
+        AtomicLongArray cells = counts[bucket];
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1);
+        for (int row = 0; row < depth; row++) {
+            cells.incrementAndGet(row * (widthMask + 1) + ((h1 + row * h2) & widthMask));
+        }
+    }
+
+    long estimate(String key) {
+        long epoch = clock.getAsLong() / bucketMillis;
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1);
+        long total = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (epochs.get(bucket) <= epoch - buckets) continue;
+            AtomicLongArray cells = counts[bucket];
+            long min = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                min = Math.min(min, cells.get(row * (widthMask + 1) + ((h1 + row * h2) & widthMask)));
+            }
+            total += min;
+        }
+        return total;
+    }
+
+    // Murmur3 finalizer: spreads String.hashCode() so the row hashes are independent enough.
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
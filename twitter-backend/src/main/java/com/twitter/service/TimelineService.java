@@ -0,0 +1,144 @@
+package com.twitter.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.twitter.model.CursorPage;
+import com.twitter.model.PostDto;
+import com.twitter.repository.FollowRepository;
+import com.twitter.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Home timelines built by fan-out-on-write: each new post id is pushed into the in-memory ring buffer of
+ * every follower whose timeline is materialized. Authors with more followers than the fan-out threshold
+ * are skipped on write and merged in on read instead. At most {@code app.timeline.max-materialized} timelines
+ * are kept in memory.
+ */
+@Service
+public class TimelineService {
+    private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+
+    private final PostRepository postRepo;
+    private final FollowRepository followRepo;
+    private final int capacity;
+    private final int fanoutThreshold;
+
+    // Materialized timelines of recent readers; past the limit the coldest are dropped and rebuilt on their next read.
+    private final Cache<Long, Timeline> timelines;
+    private final Set<Long> highFanoutAuthors = ConcurrentHashMap.newKeySet();
+
+    public TimelineService(PostRepository postRepo, FollowRepository followRepo,
+                           @Value("${app.timeline.capacity:800}") int capacity,
+                           @Value("${app.timeline.fanout-threshold:10000}") int fanoutThreshold,
+                           @Value("${app.timeline.max-materialized:10000}") long maxMaterialized) {
+        this.postRepo = postRepo;
+        this.followRepo = followRepo;
+        this.capacity = capacity;
+        this.fanoutThreshold = fanoutThreshold;
+        // Evicts on the calling thread, so the bound holds as soon as a write returns.
+        this.timelines = Caffeine.newBuilder().maximumSize(maxMaterialized).executor(Runnable::run).build();
+    }
+
+    public void onPostCreated(Long authorId, Long postId) {
+        push(authorId, postId);
+        if (highFanoutAuthors.contains(authorId)) return;
+
+        List<Long> followerIds = followRepo.findFollowerIds(authorId, Limit.of(fanoutThreshold + 1));
+        if (followerIds.size() > fanoutThreshold) {
+            logger.info("User {} exceeds fan-out threshold, switching to fan-out-on-read", authorId);
+            highFanoutAuthors.add(authorId);
+            return;
+        }
+        followerIds.forEach(followerId -> push(followerId, postId));
+    }
+
+    /**
+     * Drops a materialized timeline so that the next read rebuilds it, e.g. after the follow graph changed.
+     */
+    public void invalidate(Long userId) {
+        timelines.invalidate(userId);
+    }
+
+    /**
+     * Returns up to {@code limit} posts with ids below {@code beforeId}, newest first. Ids whose post no longer
+     * loads (deleted post, author awaiting purge) are skipped and the page is topped up from older ids; the
+     * cursor is the last id read, present only while older ids remain.
+     */
+    public CursorPage<PostDto> homeTimeline(Long userId, long beforeId, int limit) {
+        LongRingBuffer buffer = timelineFor(userId);
+        List<Long> followedHighFanout = highFanoutAuthors.isEmpty()
+                ? List.of()
+                : followRepo.findFolloweeIdsAmong(userId, highFanoutAuthors);
+
+        List<PostDto> items = new ArrayList<>();
+        long cursor = beforeId;
+        boolean more = true;
+        while (items.size() < limit && more) {
+            int wanted = limit - items.size();
+            List<Long> ids = idsBefore(buffer, followedHighFanout, cursor, wanted + 1);
+            more = ids.size() > wanted;
+            List<Long> pageIds = more ? ids.subList(0, wanted) : ids;
+            if (pageIds.isEmpty()) break;
+
+            Map<Long, PostDto> byId = postRepo.findDtosByIdIn(pageIds).stream()
+                    .collect(Collectors.toMap(PostDto::getId, Function.identity()));
+            pageIds.stream().map(byId::get).filter(Objects::nonNull).forEach(items::add);
+            cursor = pageIds.get(pageIds.size() - 1);
+        }
+        return new CursorPage<>(items, more ? String.valueOf(cursor) : null);
+    }
+
+    private List<Long> idsBefore(LongRingBuffer buffer, List<Long> followedHighFanout, long beforeId, int limit) {
+        SortedSet<Long> ids = new TreeSet<>(Comparator.reverseOrder());
+        LongStream.of(buffer.latest(beforeId, limit)).forEach(ids::add);
+        if (!followedHighFanout.isEmpty()) {
+            ids.addAll(postRepo.findIdsByAuthorsBefore(followedHighFanout, beforeId, Limit.of(limit)));
+        }
+        return ids.stream().limit(limit).toList();
+    }
+
+    private void push(Long userId, Long postId) {
+        Timeline timeline = timelines.getIfPresent(userId);
+        if (timeline != null) timeline.buffer.add(postId);
+    }
+
+    private LongRingBuffer timelineFor(Long userId) {
+        Timeline created = new Timeline(capacity);
+        Timeline existing = timelines.asMap().putIfAbsent(userId, created);
+        if (existing != null) {
+            existing.ready.join();
+            return existing.buffer;
+        }
+        // Registered before loading, so posts fanned out while the query runs are merged rather than lost.
+        try {
+            List<Long> recent = postRepo.findHomeTimelineIds(userId, Limit.of(capacity));
+            created.buffer.seed(recent.stream().mapToLong(Long::longValue).toArray());
+            created.ready.complete(null);
+        } catch (RuntimeException e) {
+            timelines.asMap().remove(userId, created);
+            created.ready.completeExceptionally(e);
+            throw e;
+        }
+        return created.buffer;
+    }
+
+    private static final class Timeline {
+        final LongRingBuffer buffer;
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+        Timeline(int capacity) {
+            this.buffer = new LongRingBuffer(capacity);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.twitter.service;
+
+import com.twitter.model.TrendingTopic;
+import com.twitter.model.UserSuggestion;
+import com.twitter.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts #hashtags and @mentions from new posts off the request path and keeps sliding-window counts of them
+ * in a {@link SlidingWindowSketch}. The sketch only estimates counts for a given key, so the current heavy
+ * hitters are tracked in a bounded candidate set: a key is admitted once its estimate beats the weakest
+ * candidate, and the set is pruned back to its capacity whenever it doubles or the window moves on.
+ */
+@Service
+public class TrendingService {
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+    private static final Pattern HASHTAG = Pattern.compile("(?<![\\w#])#(\\w{1,100})");
+    private static final Pattern MENTION = Pattern.compile("(?<![\\w@])@(\\w{1,100})");
+    static final String HASHTAG_TYPE = "hashtag";
+    static final String MENTION_TYPE = "mention";
+
+    private final UserRepository userRepo;
+    private final UserDirectoryService userDirectory;
+    private final SlidingWindowSketch sketch;
+    private final int candidateCapacity;
+    private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+    private volatile long admissionFloor;
+    private final LongSupplier clock;
+    private final long bucketMillis;
+    private volatile long prunedEpoch;
+    private final ThreadPoolExecutor workers;
+
+    @Autowired
+    public TrendingService(UserRepository userRepo, UserDirectoryService userDirectory,
+                           @Value("${app.trends.window-minutes:60}") int windowMinutes,
+                           @Value("${app.trends.buckets:12}") int buckets,
+                           @Value("${app.trends.tracked-topics:200}") int trackedTopics,
+                           @Value("${app.trends.workers:2}") int workerCount,
+                           @Value("${app.trends.queue-capacity:10000}") int queueCapacity) {
+        this(userRepo, userDirectory, windowMinutes, buckets, trackedTopics, workerCount, queueCapacity,
+                System::currentTimeMillis);
+    }
+
+    TrendingService(UserRepository userRepo, UserDirectoryService userDirectory, int windowMinutes, int buckets,
+                    int trackedTopics, int workerCount, int queueCapacity, LongSupplier clock) {
+        this.userRepo = userRepo;
+        this.userDirectory = userDirectory;
+        this.clock = clock;
+        this.bucketMillis = TimeUnit.MINUTES.toMillis(windowMinutes) / buckets;
+        this.sketch = new SlidingWindowSketch(4, 4096, buckets, bucketMillis, clock);
+        this.candidateCapacity = trackedTopics;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "trends-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a new post for extraction. When the queue is full the post is dropped from the counts; trends
+     * are approximate anyway and must never slow down posting.
+     */
+    public void recordPostAsync(String content) {
+        if (content == null) return;
+        try {
+            workers.execute(() -> recordPost(content));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Trends queue full, skipping post");
+        }
+    }
+
+    void recordPost(String content) {
+        Set<String> hashtags = new LinkedHashSet<>();
+        extract(HASHTAG, content).forEach(tag -> hashtags.add("#" + tag.toLowerCase(Locale.ROOT)));
+        hashtags.forEach(this::count);
+
+        Set<String> mentioned = extract(MENTION, content);
+        if (mentioned.isEmpty()) return;
+        // Only mentions of real users trend, counted under their canonical handle.
+        if (userDirectory.isReady()) {
+            mentioned.stream()
+                    .map(userDirectory::findByHandle)
+                    .flatMap(Optional::stream)
+                    .map(UserSuggestion::getHandle)
+                    .distinct()
+                    .forEach(this::count);
+        } else {
+            userRepo.findExistingHandles(mentioned.stream().map(name -> "@" + name).toList()).forEach(this::count);
+        }
+    }
+
+    public List<TrendingTopic> topTrends(int limit) {
+        List<TrendingTopic> trends = new ArrayList<>();
+        for (String key : candidates) {
+            long count = sketch.estimate(key);
+            if (count > 0) trends.add(new TrendingTopic(key, key.startsWith("#") ? HASHTAG_TYPE : MENTION_TYPE, count));
+        }
+        trends.sort(Comparator.comparingLong(TrendingTopic::getCount).reversed().thenComparing(TrendingTopic::getTopic));
+        return trends.size() > limit ? trends.subList(0, limit) : trends;
+    }
+
+    private void count(String key) {
+        sketch.add(key);
+        // Once a bucket rotates out, candidates may have lost counts, so the floor must be recomputed.
+        if (clock.getAsLong() / bucketMillis != prunedEpoch) prune();
+        if (candidates.contains(key)) return;
+        if (candidates.size() < candidateCapacity || sketch.estimate(key) > admissionFloor) {
+            candidates.add(key);
+            if (candidates.size() > candidateCapacity * 2) prune();
+        }
+    }
+
+    /**
+     * Drops candidates that left the window and the weakest ones beyond capacity, and resets the admission
+     * floor to the weakest remaining estimate. Only one thread prunes at a time; others carry on counting
+     * instead of waiting.
+     */
+    private void prune() {
+        if (!pruneLock.tryLock()) return;
+        try {
+            long epoch = clock.getAsLong() / bucketMillis;
+            Map<String, Long> estimates = new HashMap<>();
+            for (String key : candidates) {
+                long estimate = sketch.estimate(key);
+                if (estimate == 0) {
+                    candidates.remove(key);
+                } else {
+                    estimates.put(key, estimate);
+                }
+            }
+            List<Map.Entry<String, Long>> ranked = new ArrayList<>(estimates.entrySet());
+            ranked.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            for (int i = candidateCapacity; i < ranked.size(); i++) candidates.remove(ranked.get(i).getKey());
+            int weakest = Math.min(candidateCapacity, ranked.size()) - 1;
+            admissionFloor = weakest < 0 ? 0 : ranked.get(weakest).getValue();
+            prunedEpoch = epoch;
+        } finally {
+            pruneLock.unlock();
+        }
+    }
+
+    private static Set<String> extract(Pattern pattern, String content) {
+        Set<String> matches = new LinkedHashSet<>();
+        Matcher matcher = pattern.matcher(content);
+        while (matcher.find()) matches.add(matcher.group(1));
+        return matches;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
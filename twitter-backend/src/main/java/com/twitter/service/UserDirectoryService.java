@@ -0,0 +1,137 @@
+package com.twitter.service;
+
+import com.twitter.model.User;
+import com.twitter.model.UserSuggestion;
+import com.twitter.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory directory of every user's handle and username for mention resolution and prefix autocomplete.
+ * Both are kept in sorted skip-list maps keyed by their case-folded form, so a prefix query is a
+ * {@code subMap} range scan that stops after {@code limit} hits. Reads never lock; writes come from
+ * {@code UserController} and are serialized per directory.
+ * <p>
+ * The directory is loaded from the database in the background at startup. Until then {@link #isReady()} is
+ * false and callers that need completeness should fall back to the database.
+ */
+@Service
+public class UserDirectoryService {
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectoryService.class);
+
+    private final UserRepository userRepo;
+    private final int loadBatchSize;
+    private final Map<Long, UserSuggestion> byId = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, UserSuggestion> byHandle = new ConcurrentSkipListMap<>();
+    // Usernames are not unique, so the key carries the id: "<name>\0<id>".
+    private final ConcurrentNavigableMap<String, UserSuggestion> byUsername = new ConcurrentSkipListMap<>();
+    private final Set<Long> deletedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public UserDirectoryService(UserRepository userRepo,
+                                @Value("${app.users.directory-load-batch-size:10000}") int loadBatchSize) {
+        this.userRepo = userRepo;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread thread = new Thread(this::load, "user-directory-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Loads every user in id order. Entries written by live create/update calls in the meantime are newer than
+     * the loaded rows and win; users deleted in the meantime are not resurrected.
+     */
+    void load() {
+        long started = System.nanoTime();
+        long afterId = 0;
+        List<UserSuggestion> batch;
+        do {
+            batch = userRepo.findSuggestionsAfterId(afterId, Limit.of(loadBatchSize));
+            for (UserSuggestion user : batch) {
+                synchronized (this) {
+                    if (!byId.containsKey(user.getId()) && !deletedWhileLoading.contains(user.getId())) index(user);
+                }
+                afterId = user.getId();
+            }
+        } while (batch.size() == loadBatchSize);
+        ready = true;
+        deletedWhileLoading.clear();
+        logger.info("User directory loaded {} users in {} ms", byId.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void put(User user) {
+        remove(user.getId());
+        index(UserSuggestion.from(user));
+    }
+
+    public synchronized void remove(Long id) {
+        if (!ready) deletedWhileLoading.add(id);
+        UserSuggestion previous = byId.remove(id);
+        if (previous == null) return;
+        byHandle.remove(handleKey(previous.getHandle()), previous);
+        byUsername.remove(usernameKey(previous));
+    }
+
+    /**
+     * Exact, case-insensitive handle lookup; the leading {@code @} is optional.
+     */
+    public Optional<UserSuggestion> findByHandle(String handle) {
+        return Optional.ofNullable(byHandle.get(handleKey(handle)));
+    }
+
+    /**
+     * Users whose handle or username starts with {@code query}, handle matches first, each user at most once.
+     */
+    public List<UserSuggestion> suggest(String query, int limit) {
+        String prefix = fold(query.startsWith("@") ? query.substring(1) : query);
+        if (prefix.isEmpty()) return List.of();
+        Map<Long, UserSuggestion> results = new LinkedHashMap<>();
+        collect(byHandle, prefix, limit, results);
+        if (results.size() < limit) collect(byUsername, prefix, limit, results);
+        return new ArrayList<>(results.values());
+    }
+
+    private static void collect(ConcurrentNavigableMap<String, UserSuggestion> index, String prefix, int limit,
+                                Map<Long, UserSuggestion> results) {
+        for (UserSuggestion user : index.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            results.putIfAbsent(user.getId(), user);
+            if (results.size() >= limit) return;
+        }
+    }
+
+    private void index(UserSuggestion user) {
+        byId.put(user.getId(), user);
+        if (user.getHandle() != null) byHandle.put(handleKey(user.getHandle()), user);
+        if (user.getUsername() != null) byUsername.put(usernameKey(user), user);
+    }
+
+    private static String handleKey(String handle) {
+        return fold(handle.startsWith("@") ? handle.substring(1) : handle);
+    }
+
+    private static String usernameKey(UserSuggestion user) {
+        return fold(String.valueOf(user.getUsername())) + '\0' + user.getId();
+    }
+
+    private static String fold(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
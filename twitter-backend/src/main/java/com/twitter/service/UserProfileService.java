@@ -0,0 +1,48 @@
+package com.twitter.service;
+
+import com.twitter.model.User;
+import com.twitter.model.UserProfile;
+import com.twitter.repository.UserRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Read-through cache of user profiles in front of {@link UserRepository#findActiveById}; deleted accounts have none.
+ * <p>
+ * Loads are coalesced per key, and writers replace or evict the entry only after their change is saved.
+ * A put or evict supersedes any in-flight load of the same key, so a load that read the old row can never
+ * overwrite the newer profile.
+ */
+@Service
+public class UserProfileService {
+    public static final String CACHE_NAME = "userProfiles";
+
+    private final UserRepository userRepo;
+
+    public UserProfileService(UserRepository userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    @Cacheable(cacheNames = CACHE_NAME, key = "#id", sync = true)
+    public Optional<UserProfile> getProfile(Long id) {
+        return userRepo.findActiveById(id).map(UserProfile::from);
+    }
+
+    /**
+     * Caches {@code user} as is. Only for a user whose counters cannot have moved since it was read, such as one
+     * just created; after an update, {@link #evict} instead.
+     */
+    @CachePut(cacheNames = CACHE_NAME, key = "#user.id")
+    public Optional<UserProfile> refresh(User user) {
+        return Optional.of(UserProfile.from(user));
+    }
+
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#id")
+    public void evict(Long id) {
+        // eviction is performed by the cache aspect
+    }
+}
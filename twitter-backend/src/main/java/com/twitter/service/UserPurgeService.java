@@ -0,0 +1,184 @@
+package com.twitter.service;
+
+import com.twitter.model.PurgeProgress;
+import com.twitter.model.User;
+import com.twitter.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes the data of soft-deleted accounts on a single background thread: posts, then follows, each in
+ * bounded chunks with one short transaction per chunk, then the user row and finally its avatar blob.
+ * <p>
+ * All state lives in the database: a purge interrupted by a crash or restart simply starts over from what is
+ * left, and every account still marked deleted at startup is queued again. A purge that fails is queued again
+ * after an exponential backoff and reported as {@code RETRYING} meanwhile.
+ */
+@Service
+public class UserPurgeService {
+    private static final Logger logger = LoggerFactory.getLogger(UserPurgeService.class);
+
+    private final UserRepository userRepo;
+    private final PostWriter postWriter;
+    private final FollowWriter followWriter;
+    private final FileStorageService fileStorageService;
+    private final int chunkSize;
+    private final long chunkPauseMillis;
+    private final long retryInitialMillis;
+    private final long retryMaxMillis;
+    private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    private final Map<Long, PurgeProgress> progress = new ConcurrentHashMap<>();
+    private final Thread worker;
+    private final ScheduledExecutorService retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-purge-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserPurgeService(UserRepository userRepo, PostWriter postWriter, FollowWriter followWriter,
+                            FileStorageService fileStorageService,
+                            @Value("${app.users.purge.chunk-size:1000}") int chunkSize,
+                            @Value("${app.users.purge.chunk-pause-ms:10}") long chunkPauseMillis,
+                            @Value("${app.users.purge.retry-initial-ms:1000}") long retryInitialMillis,
+                            @Value("${app.users.purge.retry-max-ms:300000}") long retryMaxMillis) {
+        this.userRepo = userRepo;
+        this.postWriter = postWriter;
+        this.followWriter = followWriter;
+        this.fileStorageService = fileStorageService;
+        this.chunkSize = chunkSize;
+        this.chunkPauseMillis = chunkPauseMillis;
+        this.retryInitialMillis = retryInitialMillis;
+        this.retryMaxMillis = retryMaxMillis;
+        this.worker = new Thread(this::purgeLoop, "user-purge");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        userRepo.findDeletedIds().forEach(this::schedule);
+    }
+
+    /**
+     * Queues the purge of a soft-deleted account; scheduling it again while queued, running or waiting for a
+     * retry is a no-op.
+     */
+    public void schedule(Long userId) {
+        PurgeProgress queued = new PurgeProgress(userId, PurgeProgress.Status.QUEUED, 0, 0, 0, 0);
+        if (progress.putIfAbsent(userId, queued) == null) queue.add(userId);
+    }
+
+    public Optional<PurgeProgress> progress(Long userId) {
+        return Optional.ofNullable(progress.get(userId));
+    }
+
+    private void purgeLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Long userId;
+            try {
+                userId = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            boolean retry = false;
+            try {
+                retry = !purge(userId);
+                progress.remove(userId);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                retryLater(userId, e);
+            }
+            if (retry) schedule(userId);
+        }
+    }
+
+    /** Keeps the account's progress entry, so it stays visible and deduplicated, and requeues it after a backoff. */
+    private void retryLater(Long userId, RuntimeException e) {
+        // Everything on the queue was put there by schedule(), so the entry exists.
+        PurgeProgress last = progress.get(userId);
+        int failures = last.getFailedAttempts() + 1;
+        long delay = Math.min(retryMaxMillis, retryInitialMillis << Math.min(failures - 1, 20));
+        progress.put(userId, new PurgeProgress(userId, PurgeProgress.Status.RETRYING, last.getPostsPurged(),
+                last.getFollowsPurged(), last.getPostsRemaining(), failures));
+        logger.warn("Purge of user {} failed (attempt {}), retrying in {} ms: {}", userId, failures, delay,
+                e.getMessage());
+        try {
+            retryExecutor.schedule(() -> queue.add(userId), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException shuttingDown) {
+            // resumed at next startup
+        }
+    }
+
+    /**
+     * Purges one account and returns whether it is gone; false means rows were added while it ran.
+     */
+    boolean purge(Long userId) throws InterruptedException {
+        Optional<User> user = userRepo.findById(userId).filter(found -> found.getDeletedAt() != null);
+        if (user.isEmpty()) return true;
+        String avatar = user.get().getAvatarFileName();
+        long remaining = user.get().getPostCount();
+        long posts = 0;
+        long follows = 0;
+        long started = System.nanoTime();
+        logger.info("Purging user {} ({} posts)", userId, remaining);
+
+        int deleted;
+        while ((deleted = postWriter.deleteChunkByAuthor(userId, chunkSize)) > 0) {
+            posts += deleted;
+            remaining = Math.max(0, remaining - deleted);
+            report(userId, posts, follows, remaining);
+        }
+        while ((deleted = followWriter.removeChunkInvolving(userId, chunkSize)) > 0) {
+            follows += deleted;
+            report(userId, posts, follows, 0);
+        }
+
+        try {
+            userRepo.purgeDeleted(userId);
+        } catch (DataIntegrityViolationException e) {
+            // A post or follow slipped in after its chunk loop finished; go around again.
+            logger.info("User {} gained new rows during purge, requeueing", userId);
+            return false;
+        }
+        fileStorageService.releaseIfUnreferenced(avatar);
+        logger.info("Purged user {}: {} posts and {} follows in {} ms", userId, posts, follows,
+                (System.nanoTime() - started) / 1_000_000);
+        return true;
+    }
+
+    private int failedAttempts(Long userId) {
+        PurgeProgress current = progress.get(userId);
+        return current == null ? 0 : current.getFailedAttempts();
+    }
+
+    private void report(Long userId, long posts, long follows, long remaining) throws InterruptedException {
+        progress.put(userId, new PurgeProgress(userId, PurgeProgress.Status.RUNNING, posts, follows, remaining,
+                failedAttempts(userId)));
+        // Leave room between chunks for foreground writes waiting on the same locks.
+        if (chunkPauseMillis > 0) TimeUnit.MILLISECONDS.sleep(chunkPauseMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        retryExecutor.shutdownNow();
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
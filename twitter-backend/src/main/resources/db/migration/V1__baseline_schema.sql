@@ -0,0 +1,46 @@
+-- Baseline schema matching the JPA entities. Portable between PostgreSQL and H2 in PostgreSQL mode.
+
+create table users (
+    id               bigint generated by default as identity primary key,
+    username         varchar(255) not null,
+    handle           varchar(255) not null,
+    avatar_url       varchar(255),
+    avatar_file_name varchar(255),
+    avatar_variants  varchar(255),
+    location         varchar(255),
+    bio              varchar(255),
+    join_date        timestamp(6),
+    constraint uk_users_handle unique (handle)
+);
+
+-- Avatar blob reference counting and variant updates look users up by storage key.
+create index idx_users_avatar_file_name on users (avatar_file_name);
+
+-- Post ids come from a pooled allocator: one nextval hands out a block of 50.
+create sequence post_seq start with 1 increment by 50;
+
+create table post (
+    id         bigint not null primary key,
+    user_id    bigint,
+    content    varchar(255),
+    created_at timestamp(6),
+    constraint fk_post_user foreign key (user_id) references users (id)
+);
+
+-- Global feed keyset: order by created_at desc, id desc.
+create index idx_post_created_at_id on post (created_at, id);
+-- Per-user posts keyset, home timeline seeding and post counts.
+create index idx_post_user_created_at_id on post (user_id, created_at, id);
+
+create table follows (
+    id          bigint generated by default as identity primary key,
+    follower_id bigint not null,
+    followee_id bigint not null,
+    created_at  timestamp(6),
+    constraint uk_follows_follower_followee unique (follower_id, followee_id),
+    constraint fk_follows_follower foreign key (follower_id) references users (id),
+    constraint fk_follows_followee foreign key (followee_id) references users (id)
+);
+
+-- Follower fan-out; the unique constraint already covers lookups by follower.
+create index idx_follows_followee on follows (followee_id);
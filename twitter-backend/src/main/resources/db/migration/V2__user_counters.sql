@@ -0,0 +1,10 @@
+-- Denormalized per-user counters so profiles and the user listing never count posts or follows on read.
+
+alter table users add column post_count bigint default 0 not null;
+alter table users add column follower_count bigint default 0 not null;
+alter table users add column following_count bigint default 0 not null;
+
+update users set
+    post_count = (select count(*) from post p where p.user_id = users.id),
+    follower_count = (select count(*) from follows f where f.followee_id = users.id),
+    following_count = (select count(*) from follows f where f.follower_id = users.id);
@@ -0,0 +1,6 @@
+-- Soft delete: a deleted account keeps its row until its posts and follows have been purged in the background.
+
+alter table users add column deleted_at timestamp(6);
+
+-- Purge resume at startup looks up the accounts still marked deleted.
+create index idx_users_deleted_at on users (deleted_at);
@@ -0,0 +1,5 @@
+-- Optimistic-locking version of a user, bumped by changes to its profile but not by its counters, and a marker
+-- bumped with every change to its post count. Both feed the profile and user-posts ETags.
+
+alter table users add column version bigint default 0 not null;
+alter table users add column posts_version bigint default 0 not null;
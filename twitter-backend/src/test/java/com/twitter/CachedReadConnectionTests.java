@@ -0,0 +1,69 @@
+package com.twitter;
+
+import com.twitter.model.User;
+import com.twitter.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reads answered from the caches must not check out a JDBC connection: the pool is much smaller than the request
+ * thread pool, and a cache miss needs a second connection for the loader.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CachedReadConnectionTests {
+
+	@Autowired private MockMvc mockMvc;
+	@Autowired private UserRepository userRepo;
+	@MockitoSpyBean private DataSource dataSource;
+
+	// Threads that obtained a connection; background work (trends, rebuilds) may show up here too.
+	private final List<Thread> borrowers = new CopyOnWriteArrayList<>();
+	private Long userId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		User user = new User();
+		user.setUsername("Cached");
+		user.setHandle("@cached-" + System.nanoTime());
+		userId = userRepo.save(user).getId();
+		doAnswer(invocation -> {
+			borrowers.add(Thread.currentThread());
+			return invocation.callRealMethod();
+		}).when(dataSource).getConnection();
+	}
+
+	@Test
+	void cachedProfileIsServedWithoutAConnection() throws Exception {
+		mockMvc.perform(get("/api/users/" + userId)).andExpect(status().isOk());
+		borrowers.clear();
+
+		mockMvc.perform(get("/api/users/" + userId)).andExpect(status().isOk());
+
+		assertFalse(borrowers.contains(Thread.currentThread()));
+	}
+
+	@Test
+	void cachedFirstPageOfPostsIsServedWithoutAConnection() throws Exception {
+		mockMvc.perform(get("/api/posts/user/" + userId)).andExpect(status().isOk());
+		borrowers.clear();
+
+		mockMvc.perform(get("/api/posts/user/" + userId)).andExpect(status().isOk());
+
+		assertFalse(borrowers.contains(Thread.currentThread()));
+	}
+}
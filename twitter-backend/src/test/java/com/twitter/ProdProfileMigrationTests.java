@@ -0,0 +1,40 @@
+package com.twitter;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the prod profile against H2 in PostgreSQL mode: Flyway must build the schema from scratch and
+ * Hibernate's validation must accept it, so the migrations cannot drift from the entities unnoticed.
+ */
+@SpringBootTest(properties = "DB_URL=jdbc:h2:mem:prod-migrations;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH")
+@ActiveProfiles("prod")
+class ProdProfileMigrationTests {
+
+	@Autowired private Flyway flyway;
+	@Autowired private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void migrationsApplyAndMatchEntities() {
+		assertTrue(flyway.info().pending().length == 0);
+		assertEquals("4", flyway.info().current().getVersion().getVersion());
+	}
+
+	@Test
+	void migrationsCreateReadPathIndexes() {
+		List<String> indexes = jdbcTemplate.queryForList(
+				"select index_name from information_schema.indexes where table_schema = 'public'", String.class);
+
+		assertTrue(indexes.containsAll(List.of(
+				"idx_post_created_at_id", "idx_post_user_created_at_id", "idx_follows_followee", "idx_users_avatar_file_name")),
+				() -> "Missing read-path indexes in " + indexes);
+	}
+}
@@ -0,0 +1,34 @@
+package com.twitter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointTests {
+
+	@Autowired private MockMvc mockMvc;
+
+	@Test
+	void scrapeExposesHotPathHistogramsAndRuntimeGauges() throws Exception {
+		mockMvc.perform(get("/api/posts")).andExpect(status().isOk());
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+				.andExpect(content().string(containsString("uri=\"/api/posts\"")))
+				.andExpect(content().string(containsString("method=\"findLatest\"")))
+				.andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+				.andExpect(content().string(containsString("hikaricp_connections_pending{")))
+				.andExpect(content().string(containsString("jvm_gc_memory_allocated_bytes_total{")));
+	}
+}
@@ -0,0 +1,113 @@
+package com.twitter;
+
+import com.twitter.config.ReadYourWritesFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the app against two H2 databases standing in for a primary and its replica. The same user id holds
+ * different rows in each, so every response shows which pool served it.
+ */
+@SpringBootTest(properties = {
+		"DB_URL=jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"app.datasource.replica.url=jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+		"DB_POOL_SIZE=3"
+})
+@ActiveProfiles("prod")
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTests {
+
+	@Autowired private MockMvc mockMvc;
+	@Autowired private MeterRegistry meterRegistry;
+	@Autowired @Qualifier("primaryDataSource") private DataSource primary;
+	@Autowired @Qualifier("replicaDataSource") private DataSource replica;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		Flyway.configure().dataSource(replica).load().migrate();
+		execute(primary, "delete from post", "delete from follows", "delete from users",
+				"insert into users (id, username, handle) values (1, 'On Primary', '@primary')");
+		execute(replica, "delete from post", "delete from follows", "delete from users",
+				"insert into users (id, username, handle) values (1, 'On Replica', '@replica')");
+	}
+
+	private static void execute(DataSource dataSource, String... statements) throws SQLException {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			for (String sql : statements) statement.execute(sql);
+			if (!connection.getAutoCommit()) connection.commit();
+		}
+	}
+
+	private double routed(String pool) {
+		return meterRegistry.get("datasource.routing.connections").tag("pool", pool).counter().count();
+	}
+
+	@Test
+	void readOnlyGetsAreServedByTheReplica() throws Exception {
+		double before = routed("replica");
+
+		mockMvc.perform(get("/api/users"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items[0].handle").value("@replica"));
+
+		assertTrue(routed("replica") > before);
+	}
+
+	@Test
+	void writesUseThePrimaryAndPinTheClientToIt() throws Exception {
+		MvcResult update = mockMvc.perform(multipart("/api/users/1")
+						.file(new MockMultipartFile("username", "", "text/plain", "Updated".getBytes()))
+						.file(new MockMultipartFile("handle", "", "text/plain", "@primary".getBytes()))
+						.file(new MockMultipartFile("location", "", "text/plain", "Lisbon".getBytes()))
+						.file(new MockMultipartFile("bio", "", "text/plain", "Hi".getBytes()))
+						.with(req -> {
+							req.setMethod("PUT");
+							return req;
+						}))
+				.andExpect(status().isOk())
+				.andExpect(cookie().exists(ReadYourWritesFilter.COOKIE_NAME))
+				.andReturn();
+		Cookie pin = update.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+		mockMvc.perform(get("/api/users").cookie(pin))
+				.andExpect(jsonPath("$.items[0].username").value("Updated"));
+		mockMvc.perform(get("/api/users"))
+				.andExpect(jsonPath("$.items[0].username").value("On Replica"));
+		mockMvc.perform(get("/api/users").cookie(new Cookie(ReadYourWritesFilter.COOKIE_NAME, "1")))
+				.andExpect(jsonPath("$.items[0].username").value("On Replica"));
+	}
+
+	@Test
+	void cachedProfilesAreLoadedFromThePrimary() throws Exception {
+		mockMvc.perform(get("/api/users/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.handle").value("@primary"));
+	}
+
+	@Test
+	void eachPoolReportsItsOwnMetrics() {
+		assertNotNull(meterRegistry.find("hikaricp.connections.max").tag("pool", "primary").gauge());
+		assertNotNull(meterRegistry.find("hikaricp.connections.max").tag("pool", "replica").gauge());
+	}
+}
@@ -0,0 +1,93 @@
+package com.twitter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.twitter.model.Post;
+import com.twitter.model.User;
+import com.twitter.repository.PostRepository;
+import com.twitter.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Goes through the real Tomcat connector, which is where response compression happens.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ResponseFormatTests {
+
+	@LocalServerPort private int port;
+	@Autowired private UserRepository userRepo;
+	@Autowired private PostRepository postRepo;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeEach
+	void seedFeed() {
+		if (postRepo.count() >= 100) return;
+		User author = new User();
+		author.setUsername("Formats");
+		author.setHandle("@formats");
+		userRepo.save(author);
+		List<Post> posts = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Post post = new Post();
+			post.setUser(author);
+			post.setContent("Post number " + i + " about #formats");
+			posts.add(post);
+		}
+		postRepo.saveAll(posts);
+	}
+
+	private HttpResponse<InputStream> get(String path, String accept, String acceptEncoding)
+			throws IOException, InterruptedException {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).header("Accept", accept);
+		if (acceptEncoding != null) request.header("Accept-Encoding", acceptEncoding);
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+	}
+
+	@Test
+	void largeJsonResponsesAreGzippedWhenTheClientAcceptsIt() throws Exception {
+		HttpResponse<InputStream> response = get("/api/posts?size=100", "application/json", "gzip");
+
+		assertEquals(200, response.statusCode());
+		assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+		JsonNode page = new ObjectMapper().readTree(new GZIPInputStream(response.body()));
+		assertEquals(100, page.get("items").size());
+	}
+
+	@Test
+	void smallOrUnnegotiatedResponsesAreSentUncompressed() throws Exception {
+		assertTrue(get("/api/posts?size=1", "application/json", "gzip").headers().firstValue("Content-Encoding").isEmpty());
+		assertTrue(get("/api/posts?size=100", "application/json", null).headers().firstValue("Content-Encoding").isEmpty());
+	}
+
+	@Test
+	void binaryFormatsAreNegotiatedWithTheSameFields() throws Exception {
+		for (String mediaType : List.of("application/cbor", "application/x-jackson-smile")) {
+			HttpResponse<InputStream> response = get("/api/posts?size=5", mediaType, null);
+
+			assertEquals(mediaType, response.headers().firstValue("Content-Type").orElse(null));
+			ObjectMapper mapper = new ObjectMapper(mediaType.endsWith("cbor") ? new CBORFactory() : new SmileFactory());
+			JsonNode first = mapper.readTree(response.body()).get("items").get(0);
+			assertTrue(first.get("createdAt").isTextual(), () -> mediaType + " should keep ISO dates: " + first);
+			assertNotNull(first.get("username"));
+		}
+	}
+}
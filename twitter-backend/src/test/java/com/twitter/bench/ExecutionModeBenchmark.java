@@ -0,0 +1,149 @@
+package com.twitter.bench;
+
+import com.twitter.TwitterBackendApplication;
+import com.twitter.model.Post;
+import com.twitter.model.User;
+import com.twitter.repository.PostRepository;
+import com.twitter.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares throughput and tail latency of the platform-thread and virtual-thread execution modes under a
+ * closed-loop load of feed and profile reads. Not part of the regular build; run it with
+ * <pre>
+ * mvn test -Dtest=ExecutionModeBenchmark -Dbenchmark=true [-Dbench.concurrency=1000] [-Dbench.seconds=20]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExecutionModeBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 500);
+    private static final int SECONDS = Integer.getInteger("bench.seconds", 15);
+    private static final int USERS = 200;
+    private static final int POSTS = 5_000;
+
+    @Test
+    void compareExecutionModes() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+        System.out.printf("%n%-10s %12s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %12.0f %10.2f %10.2f %10.2f %8d%n", result.mode, result.throughput,
+                    result.p50Millis, result.p99Millis, result.maxMillis, result.errors);
+        }
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TwitterBackendApplication.class)
+                .profiles(virtualThreads ? "virtual-threads" : "default")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + mode,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework.web=WARN",
+                        "logging.level.org.hibernate.SQL=WARN")
+                .run()) {
+            seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            drive("http://localhost:" + port, Duration.ofSeconds(3), null); // warm-up
+            List<long[]> samples = new ArrayList<>();
+            AtomicLong errors = new AtomicLong();
+            long elapsed = drive("http://localhost:" + port, Duration.ofSeconds(SECONDS), new Recorder(samples, errors));
+            return Result.of(mode, samples, errors.get(), elapsed);
+        }
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        UserRepository userRepo = context.getBean(UserRepository.class);
+        PostRepository postRepo = context.getBean(PostRepository.class);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setHandle("@user" + i);
+            users.add(user);
+        }
+        users = userRepo.saveAll(users);
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            Post post = new Post();
+            post.setUser(users.get(i % USERS));
+            post.setContent("post number " + i);
+            posts.add(post);
+        }
+        postRepo.saveAll(posts);
+    }
+
+    private long drive(String baseUrl, Duration duration, Recorder recorder) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENCY; c++) {
+                clients.submit(() -> {
+                    long[] latencies = new long[1 << 16];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        String path = ThreadLocalRandom.current().nextBoolean()
+                                ? "/api/posts?size=20"
+                                : "/api/users/" + (1 + ThreadLocalRandom.current().nextInt(USERS));
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200 && recorder != null) recorder.errors.incrementAndGet();
+                        } catch (Exception e) {
+                            if (recorder != null) recorder.errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                        latencies[count++] = System.nanoTime() - sent;
+                    }
+                    if (recorder != null) recorder.add(Arrays.copyOf(latencies, count));
+                    return null;
+                });
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private record Recorder(List<long[]> samples, AtomicLong errors) {
+        synchronized void add(long[] latencies) {
+            samples.add(latencies);
+        }
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis, double maxMillis, long errors) {
+        static Result of(String mode, List<long[]> samples, long errors, long elapsedNanos) {
+            long[] all = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            if (all.length == 0) return new Result(mode, 0, 0, 0, 0, errors);
+            return new Result(mode,
+                    all.length / (elapsedNanos / 1e9),
+                    all[(int) (all.length * 0.50)] / 1e6,
+                    all[Math.min(all.length - 1, (int) (all.length * 0.99))] / 1e6,
+                    all[all.length - 1] / 1e6,
+                    errors);
+        }
+    }
+}
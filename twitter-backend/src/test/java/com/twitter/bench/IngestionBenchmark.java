@@ -0,0 +1,97 @@
+package com.twitter.bench;
+
+import com.twitter.TwitterBackendApplication;
+import com.twitter.model.Post;
+import com.twitter.model.User;
+import com.twitter.repository.UserRepository;
+import com.twitter.service.PostIngestionService;
+import com.twitter.service.PostWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Compares post ingestion throughput of the direct path (one insert and commit per post) with write-behind
+ * group commits at several batch sizes, under a closed loop of concurrent writers. Not part of the regular
+ * build; run it with
+ * <pre>
+ * mvn test -Dtest=IngestionBenchmark -Dbenchmark=true [-Dbench.writers=64] [-Dbench.seconds=10]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class IngestionBenchmark {
+
+    private static final int WRITERS = Integer.getInteger("bench.writers", 64);
+    private static final int SECONDS = Integer.getInteger("bench.seconds", 10);
+    private static final int[] BATCH_SIZES = {1, 10, 50, 200};
+
+    @Test
+    void compareIngestionModes() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TwitterBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-ingestion",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.hibernate.SQL=WARN")
+                .run()) {
+            PostWriter postWriter = context.getBean(PostWriter.class);
+            User user = new User();
+            user.setUsername("writer");
+            user.setHandle("@writer");
+            User author = context.getBean(UserRepository.class).save(user);
+
+            List<String> rows = new ArrayList<>();
+            run(author, post -> CompletableFuture.completedFuture(postWriter.save(post)), Duration.ofSeconds(2));
+            rows.add(row("direct", run(author, post -> CompletableFuture.completedFuture(postWriter.save(post)),
+                    Duration.ofSeconds(SECONDS))));
+            for (int batchSize : BATCH_SIZES) {
+                PostIngestionService service = new PostIngestionService(postWriter, "batched", batchSize, 10_000, 5);
+                try {
+                    rows.add(row("batched/" + batchSize, run(author, service::submit, Duration.ofSeconds(SECONDS))));
+                } finally {
+                    service.shutdown();
+                }
+            }
+            System.out.printf("%n%-14s %12s%n", "mode", "posts/s");
+            rows.forEach(System.out::println);
+        }
+    }
+
+    private static String row(String mode, double postsPerSecond) {
+        return String.format("%-14s %12.0f", mode, postsPerSecond);
+    }
+
+    private double run(User author, Function<Post, CompletableFuture<Post>> ingest, Duration duration)
+            throws InterruptedException {
+        AtomicLong written = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < WRITERS; w++) {
+                writers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Post post = new Post();
+                        post.setUser(author);
+                        post.setContent("benchmark post");
+                        ingest.apply(post).join();
+                        written.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+        }
+        return written.get() / ((System.nanoTime() - start) / 1e9);
+    }
+}
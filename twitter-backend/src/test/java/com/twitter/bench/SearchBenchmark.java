@@ -0,0 +1,88 @@
+package com.twitter.bench;
+
+import com.twitter.repository.PostRepository;
+import com.twitter.service.PostSearchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures indexing time and query latency of the in-process post search index over a synthetic corpus with a
+ * Zipf-like vocabulary. Not part of the regular build; run it with
+ * <pre>
+ * mvn test -Dtest=SearchBenchmark -Dbenchmark=true [-Dbench.posts=2000000]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SearchBenchmark {
+
+    private static final int POSTS = Integer.getInteger("bench.posts", 1_000_000);
+    private static final int VOCABULARY = 50_000;
+    private static final int QUERIES = 2_000;
+
+    @Test
+    void measureQueryLatency() {
+        Random random = new Random(42);
+        PostSearchService index = new PostSearchService(mock(PostRepository.class), 5000);
+
+        long started = System.nanoTime();
+        for (int id = 1; id <= POSTS; id++) index.index(id, content(id));
+        System.out.printf("%nIndexed %d posts in %d ms%n", POSTS, (System.nanoTime() - started) / 1_000_000);
+
+        for (String shape : List.of("single", "two-term", "phrase")) {
+            long[] latencies = new long[QUERIES];
+            for (int q = 0; q < QUERIES; q++) {
+                String query = switch (shape) {
+                    case "single" -> word(random);
+                    case "two-term" -> word(random) + " " + word(random);
+                    default -> "\"" + word(random) + " " + word(random) + "\"";
+                };
+                long sent = System.nanoTime();
+                index.search(query, 0, 20);
+                latencies[q] = System.nanoTime() - sent;
+            }
+            report(shape, latencies);
+        }
+
+        // Deletes and late commits between searches, as under purges and concurrent posting: each round removes a
+        // post and puts back the one removed before it, out of id order, then queries the most common terms.
+        long[] latencies = new long[QUERIES];
+        int previous = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            int victim = 1 + random.nextInt(POSTS);
+            index.remove(victim, content(victim));
+            if (previous > 0) index.index(previous, content(previous));
+            previous = victim;
+            long sent = System.nanoTime();
+            index.search(q % 2 == 0 ? "w1" : "w1 w2", 0, 20);
+            latencies[q] = System.nanoTime() - sent;
+        }
+        report("churn", latencies);
+    }
+
+    private static void report(String shape, long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("%-9s p50 %.3f ms  p99 %.3f ms  max %.3f ms%n", shape,
+                latencies[QUERIES / 2] / 1e6, latencies[QUERIES * 99 / 100] / 1e6, latencies[QUERIES - 1] / 1e6);
+    }
+
+    // The same id always gets the same content, so a removal can name what the post was indexed with.
+    private static String content(int id) {
+        Random random = new Random(id);
+        StringBuilder content = new StringBuilder();
+        int words = 8 + random.nextInt(20);
+        for (int w = 0; w < words; w++) content.append(word(random)).append(' ');
+        return content.toString();
+    }
+
+    // Approximately Zipf-distributed: low ranks are drawn far more often than high ones.
+    private static String word(Random random) {
+        int rank = (int) Math.floor(Math.pow(VOCABULARY, random.nextDouble()));
+        return "w" + rank;
+    }
+}
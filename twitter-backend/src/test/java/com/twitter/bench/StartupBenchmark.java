@@ -0,0 +1,103 @@
+package com.twitter.bench;
+
+import com.twitter.TwitterBackendApplication;
+import com.twitter.service.PostSearchService;
+import com.twitter.service.UserDirectoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures time-to-ready of the prod profile on a pre-populated, file-backed database: first until the
+ * application context is up and serving, then until the in-memory search index and user directory have been
+ * rebuilt from the stored data. Not part of the regular build; run it with
+ * <pre>
+ * mvn test -Dtest=StartupBenchmark -Dbenchmark=true [-Dbench.users=20000] [-Dbench.posts=500000] [-Dbench.runs=3]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StartupBenchmark {
+
+    private static final int USERS = Integer.getInteger("bench.users", 20_000);
+    private static final int POSTS = Integer.getInteger("bench.posts", 500_000);
+    private static final int RUNS = Integer.getInteger("bench.runs", 3);
+    private static final Path DATA_DIR = Path.of("target", "bench-startup");
+
+    @Test
+    void measureTimeToReady() throws Exception {
+        FileSystemUtils.deleteRecursively(DATA_DIR);
+        try (ConfigurableApplicationContext context = start()) {
+            populate(context.getBean(JdbcTemplate.class), context.getBean(TransactionTemplate.class));
+        }
+
+        System.out.printf("%nDataset: %d users, %d posts%n", USERS, POSTS);
+        System.out.printf("%-5s %14s %16s %18s%n", "run", "context ms", "directory ms", "search index ms");
+        for (int run = 1; run <= RUNS; run++) {
+            long started = System.nanoTime();
+            try (ConfigurableApplicationContext context = start()) {
+                long contextMillis = (System.nanoTime() - started) / 1_000_000;
+                UserDirectoryService directory = context.getBean(UserDirectoryService.class);
+                PostSearchService search = context.getBean(PostSearchService.class);
+                long directoryMillis = -1;
+                long searchMillis = -1;
+                while (directoryMillis < 0 || searchMillis < 0) {
+                    long elapsed = (System.nanoTime() - started) / 1_000_000;
+                    if (directoryMillis < 0 && directory.isReady()) directoryMillis = elapsed;
+                    if (searchMillis < 0 && search.isReady()) searchMillis = elapsed;
+                    Thread.sleep(5);
+                }
+                System.out.printf("%-5d %14d %16d %18d%n", run, contextMillis, directoryMillis, searchMillis);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        String url = "jdbc:h2:file:" + DATA_DIR.toAbsolutePath().resolve("twitter")
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+        return new SpringApplicationBuilder(TwitterBackendApplication.class)
+                .profiles("prod")
+                .properties(
+                        "server.port=0",
+                        "DB_URL=" + url,
+                        "DB_USERNAME=sa",
+                        "DB_PASSWORD=",
+                        "app.uploads.dir=" + DATA_DIR.resolve("uploads"),
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    // The prod pool hands out connections with auto-commit off, so every batch runs in its own transaction.
+    private void populate(JdbcTemplate jdbc, TransactionTemplate tx) {
+        LocalDateTime base = LocalDateTime.now().minusDays(30);
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{i, "User " + i, "@user" + i, Timestamp.valueOf(base)});
+        }
+        tx.executeWithoutResult(status -> {
+            jdbc.batchUpdate("insert into users (id, username, handle, join_date) values (?, ?, ?, ?)", users);
+            jdbc.execute("alter table users alter column id restart with " + (USERS + 1));
+        });
+
+        List<Object[]> posts = new ArrayList<>();
+        for (int i = 1; i <= POSTS; i++) {
+            posts.add(new Object[]{i, 1 + i % USERS, "post " + i + " about topic" + (i % 997) + " #tag" + (i % 101),
+                    Timestamp.valueOf(base.plusSeconds(i))});
+            if (posts.size() == 10_000 || i == POSTS) {
+                tx.executeWithoutResult(status ->
+                        jdbc.batchUpdate("insert into post (id, user_id, content, created_at) values (?, ?, ?, ?)", posts));
+                posts.clear();
+            }
+        }
+        tx.executeWithoutResult(status -> jdbc.execute("alter sequence post_seq restart with " + (POSTS + 1)));
+    }
+}
@@ -0,0 +1,127 @@
+package com.twitter.controller;
+
+import com.twitter.model.Follow;
+import com.twitter.model.User;
+import com.twitter.repository.FollowRepository;
+import com.twitter.repository.UserRepository;
+import com.twitter.service.FollowWriter;
+import com.twitter.service.TimelineService;
+import com.twitter.service.UserProfileService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(FollowController.class)
+public class FollowControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+    @MockitoBean
+    private FollowRepository followRepo;
+    @MockitoBean
+    private UserRepository userRepo;
+    @MockitoBean
+    private FollowWriter followWriter;
+    @MockitoBean
+    private TimelineService timelineService;
+    @MockitoBean
+    private UserProfileService userProfileService;
+
+    private User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        return user;
+    }
+
+    @Test
+    void follow_shouldSaveAndInvalidateTimelineAndProfiles() throws Exception {
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user(1)));
+        when(userRepo.findActiveById(2L)).thenReturn(Optional.of(user(2)));
+
+        mockMvc.perform(post("/api/users/1/following/2"))
+                .andExpect(status().isNoContent());
+
+        verify(followWriter).follow(any(Follow.class));
+        verify(timelineService).invalidate(1L);
+        verify(userProfileService).evict(1L);
+        verify(userProfileService).evict(2L);
+    }
+
+    @Test
+    void follow_alreadyFollowing_shouldBeNoOp() throws Exception {
+        when(followRepo.existsByFollowerIdAndFolloweeId(1L, 2L)).thenReturn(true);
+
+        mockMvc.perform(post("/api/users/1/following/2"))
+                .andExpect(status().isNoContent());
+
+        verify(followWriter, never()).follow(any(Follow.class));
+    }
+
+    @Test
+    void follow_racingIdenticalFollow_shouldBeNoOp() throws Exception {
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user(1)));
+        when(userRepo.findActiveById(2L)).thenReturn(Optional.of(user(2)));
+        when(followRepo.existsByFollowerIdAndFolloweeId(1L, 2L)).thenReturn(false, true);
+        when(followWriter.follow(any(Follow.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_follows_follower_followee"));
+
+        mockMvc.perform(post("/api/users/1/following/2"))
+                .andExpect(status().isNoContent());
+
+        verifyNoInteractions(timelineService, userProfileService);
+    }
+
+    @Test
+    void follow_otherIntegrityViolation_shouldStillFail() throws Exception {
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user(1)));
+        when(userRepo.findActiveById(2L)).thenReturn(Optional.of(user(2)));
+        when(followWriter.follow(any(Follow.class))).thenThrow(new DataIntegrityViolationException("fk_follows_followee"));
+
+        mockMvc.perform(post("/api/users/1/following/2"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void follow_self_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/users/1/following/1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void follow_unknownFollowee_shouldReturnNotFound() throws Exception {
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user(1)));
+        when(userRepo.findActiveById(2L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/users/1/following/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void unfollow_shouldDeleteAndInvalidateTimeline() throws Exception {
+        when(followWriter.unfollow(1L, 2L)).thenReturn(true);
+
+        mockMvc.perform(delete("/api/users/1/following/2"))
+                .andExpect(status().isNoContent());
+
+        verify(timelineService).invalidate(1L);
+        verify(userProfileService).evict(2L);
+    }
+
+    @Test
+    void unfollow_notFollowing_shouldLeaveCachesAlone() throws Exception {
+        mockMvc.perform(delete("/api/users/1/following/2"))
+                .andExpect(status().isNoContent());
+
+        verifyNoInteractions(timelineService, userProfileService);
+    }
+}
@@ -1,22 +1,39 @@
 package com.twitter.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.twitter.model.CursorPage;
 import com.twitter.model.Post;
+import com.twitter.model.PostCursor;
+import com.twitter.model.PostDto;
 import com.twitter.model.User;
+import com.twitter.model.UserProfile;
 import com.twitter.repository.PostRepository;
 import com.twitter.repository.UserRepository;
+import com.twitter.exception.IngestionRejectedException;
+import com.twitter.service.FeedVersionService;
+import com.twitter.service.PostEventBus;
+import com.twitter.service.PostIngestionService;
+import com.twitter.service.PostSearchService;
+import com.twitter.service.PostWriter;
+import com.twitter.service.RecentPostsService;
+import com.twitter.service.TimelineService;
+import com.twitter.service.TrendingService;
+import com.twitter.service.UserProfileService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.Limit;
 
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -30,8 +47,27 @@ public class PostControllerTest {
     private PostRepository postRepo;
     @MockitoBean
     private UserRepository userRepo;
+    @MockitoBean
+    private TimelineService timelineService;
+    @MockitoBean
+    private UserProfileService userProfileService;
+    @MockitoBean
+    private PostEventBus postEventBus;
+    @MockitoBean
+    private PostIngestionService postIngestionService;
+    @MockitoBean
+    private PostWriter postWriter;
+    @MockitoBean
+    private PostSearchService postSearchService;
+    @MockitoBean
+    private TrendingService trendingService;
+    @MockitoBean
+    private RecentPostsService recentPostsService;
+    @MockitoBean
+    private FeedVersionService feedVersionService;
 
     private Post post;
+    private PostDto postDto;
     private User user;
 
     @BeforeEach
@@ -45,34 +81,149 @@ public class PostControllerTest {
         post.setContent("Hello world!");
         post.setUser(user);
         post.setCreatedAt(LocalDateTime.now());
+
+        postDto = new PostDto(1L, "Hello world!", post.getCreatedAt(), 1L, "john");
     }
 
     @Test
     void getAllPosts_shouldReturnList() throws Exception {
-        when(postRepo.findAll()).thenReturn(List.of(post));
+        when(postRepo.findLatest(any(Limit.class))).thenReturn(List.of(postDto));
+
+        mockMvc.perform(get("/api/posts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].content").value("Hello world!"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getAllPosts_shouldReturnCursorWhenMorePagesExist() throws Exception {
+        PostDto older = new PostDto(0L, "Older", post.getCreatedAt().minusMinutes(1), 1L, "john");
+        when(postRepo.findLatest(Limit.of(2))).thenReturn(List.of(postDto, older));
+
+        mockMvc.perform(get("/api/posts").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor")
+                        .value(new PostCursor(post.getCreatedAt(), post.getId()).encode()));
+    }
+
+    @Test
+    void getAllPosts_withCursor_shouldSeekPastIt() throws Exception {
+        String cursor = new PostCursor(post.getCreatedAt(), 5L).encode();
+        when(postRepo.findOlderThan(eq(post.getCreatedAt()), eq(5L), any(Limit.class))).thenReturn(List.of(postDto));
+
+        mockMvc.perform(get("/api/posts").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].content").value("Hello world!"));
+    }
+
+    @Test
+    void getAllPosts_shouldCapPageSize() throws Exception {
+        when(postRepo.findLatest(any(Limit.class))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/posts").param("size", "10000"))
+                .andExpect(status().isOk());
+
+        verify(postRepo).findLatest(Limit.of(101));
+    }
+
+    @Test
+    void getAllPosts_shouldTagResponseWithFeedVersion() throws Exception {
+        when(feedVersionService.etag()).thenReturn("W/\"feed-a-0-1\"");
+        when(postRepo.findLatest(any(Limit.class))).thenReturn(List.of(postDto));
 
         mockMvc.perform(get("/api/posts"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].content").value("Hello world!"));
+                .andExpect(header().string("ETag", "W/\"feed-a-0-1\""));
+    }
+
+    @Test
+    void getAllPosts_unchangedFeed_shouldReturnNotModifiedWithoutQuerying() throws Exception {
+        when(feedVersionService.etag()).thenReturn("W/\"feed-a-0-1\"");
+
+        mockMvc.perform(get("/api/posts").header("If-None-Match", "W/\"feed-a-0-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(postRepo, never()).findLatest(any(Limit.class));
+    }
+
+    @Test
+    void getAllPosts_invalidCursor_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/posts").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
     }
 
     @Test
     void createPost_shouldSave() throws Exception {
         Map<String, String> payload = Map.of("content", "Test post");
 
-        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
-        when(postRepo.save(any(Post.class))).thenReturn(post);
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(postIngestionService.submit(any(Post.class))).thenAnswer(invocation -> {
+            Post saved = invocation.getArgument(0);
+            saved.setId(5L);
+            return CompletableFuture.completedFuture(saved);
+        });
 
-        mockMvc.perform(post("/api/posts/user/1")
+        MvcResult result = mockMvc.perform(post("/api/posts/user/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new ObjectMapper().writeValueAsString(payload)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content").value("Test post"));
+
+        verify(timelineService).onPostCreated(1L, 5L);
+        verify(recentPostsService).evict(1L);
+        verify(userProfileService).evict(1L);
+        verify(postSearchService).index(5L, "Test post");
+        verify(trendingService).recordPostAsync("Test post");
+        verify(postEventBus).publish(argThat(dto -> "Test post".equals(dto.getContent()) && "john".equals(dto.getUsername())));
+    }
+
+    @Test
+    void createPost_ingestionQueueFull_shouldReturnServiceUnavailable() throws Exception {
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(postIngestionService.submit(any(Post.class)))
+                .thenThrow(new IngestionRejectedException("Too many pending posts, please retry shortly"));
+
+        mockMvc.perform(post("/api/posts/user/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"Test\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verifyNoInteractions(timelineService, postEventBus);
+    }
+
+    @Test
+    void deletePost_shouldEvictAuthorCaches() throws Exception {
+        when(postWriter.delete(5L)).thenReturn(Optional.of(1L));
+
+        mockMvc.perform(delete("/api/posts/5"))
+                .andExpect(status().isNoContent());
+
+        verify(recentPostsService).evict(1L);
+        verify(userProfileService).evict(1L);
+        verify(feedVersionService).changed(1L);
+    }
+
+    @Test
+    void deletePost_notFound() throws Exception {
+        when(postWriter.delete(5L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(delete("/api/posts/5"))
+                .andExpect(status().isNotFound());
+
+        verifyNoInteractions(recentPostsService);
     }
 
     @Test
     void createPost_userNotFound() throws Exception {
-        when(userRepo.findById(1L)).thenReturn(Optional.empty());
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.empty());
 
         mockMvc.perform(post("/api/posts/user/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -81,43 +232,198 @@ public class PostControllerTest {
     }
 
     @Test
-    void getUserPosts_found() throws Exception {
-        user.setPosts(List.of(post));
-        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+    void searchPosts_shouldReturnRankedPageWithOffsetCursor() throws Exception {
+        PostDto second = new PostDto(2L, "Hello again", post.getCreatedAt(), 1L, "john");
+        when(postSearchService.search("hello", 0, 2)).thenReturn(List.of(2L, 1L));
+        when(postRepo.findDtosByIdIn(List.of(2L))).thenReturn(List.of(second));
 
-        mockMvc.perform(get("/api/posts/user/1"))
+        mockMvc.perform(get("/api/posts/search").param("q", "hello").param("size", "1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].content").value("Hello world!"));
+                .andExpect(jsonPath("$.items[0].id").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("1"));
     }
 
     @Test
-    void getUserPosts_notFound() throws Exception {
-        when(userRepo.findById(1L)).thenReturn(Optional.empty());
+    void searchPosts_shouldKeepRankOrderAndSkipMissingPosts() throws Exception {
+        when(postSearchService.search("hello", 20, 21)).thenReturn(List.of(3L, 9L, 1L));
+        when(postRepo.findDtosByIdIn(List.of(3L, 9L, 1L)))
+                .thenReturn(List.of(postDto, new PostDto(3L, "Hello three", post.getCreatedAt(), 1L, "john")));
 
-        mockMvc.perform(get("/api/posts/user/1"))
+        mockMvc.perform(get("/api/posts/search").param("q", "hello").param("cursor", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(3))
+                .andExpect(jsonPath("$.items[1].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void searchPosts_shouldTopUpPageWhenHitsCannotBeLoaded() throws Exception {
+        PostDto third = new PostDto(3L, "Hello three", post.getCreatedAt(), 1L, "john");
+        when(postSearchService.search("hello", 0, 3)).thenReturn(List.of(9L, 3L, 8L));
+        when(postRepo.findDtosByIdIn(List.of(9L, 3L))).thenReturn(List.of(third));
+        when(postSearchService.search("hello", 2, 2)).thenReturn(List.of(8L, 1L));
+        when(postRepo.findDtosByIdIn(List.of(8L))).thenReturn(List.of());
+        when(postSearchService.search("hello", 3, 2)).thenReturn(List.of(1L));
+        when(postRepo.findDtosByIdIn(List.of(1L))).thenReturn(List.of(postDto));
+
+        mockMvc.perform(get("/api/posts/search").param("q", "hello").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(3))
+                .andExpect(jsonPath("$.items[1].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void searchPosts_blankQuery_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/posts/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(postSearchService);
+    }
+
+    @Test
+    void streamPosts_shouldSubscribeFromLastEventId() throws Exception {
+        String lastEventId = PostCursor.of(postDto).encode();
+
+        mockMvc.perform(get("/api/posts/stream").header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted());
+
+        verify(postEventBus).subscribe(any(), eq(PostCursor.of(postDto)));
+    }
+
+    @Test
+    void streamPosts_withoutLastEventId_shouldSubscribeLiveOnly() throws Exception {
+        mockMvc.perform(get("/api/posts/stream"))
+                .andExpect(request().asyncStarted());
+
+        verify(postEventBus).subscribe(any(), isNull());
+    }
+
+    @Test
+    void streamPosts_invalidLastEventId_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/posts/stream").header("Last-Event-ID", "%%%"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(postEventBus);
+    }
+
+    @Test
+    void getHomeTimeline_shouldReturnPageWithCursor() throws Exception {
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(timelineService.homeTimeline(1L, Long.MAX_VALUE, 1)).thenReturn(new CursorPage<>(List.of(postDto), "1"));
+
+        mockMvc.perform(get("/api/posts/timeline/1").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].content").value("Hello world!"))
+                .andExpect(jsonPath("$.nextCursor").value("1"));
+    }
+
+    @Test
+    void getHomeTimeline_withCursor_shouldReadOlderPosts() throws Exception {
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(timelineService.homeTimeline(1L, 42L, 20)).thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/posts/timeline/1").param("cursor", "42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getHomeTimeline_userNotFound() throws Exception {
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/posts/timeline/1"))
                 .andExpect(status().isNotFound());
     }
 
     @Test
-    void getAllPosts_postWithoutUser_shouldHandleGracefully() throws Exception {
-        Post postWithoutUser = new Post();
-        postWithoutUser.setId(2L);
-        postWithoutUser.setContent("Orphan post");
-        postWithoutUser.setCreatedAt(LocalDateTime.now());
-        postWithoutUser.setUser(null); // Important part
+    void getUserPosts_firstPage_shouldComeFromRecentPostsCache() throws Exception {
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(recentPostsService.firstPage(1L)).thenReturn(List.of(postDto));
 
-        when(postRepo.findAll()).thenReturn(List.of(postWithoutUser));
+        mockMvc.perform(get("/api/posts/user/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].content").value("Hello world!"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        verify(postRepo, never()).findLatestByUser(anyLong(), any(Limit.class));
+    }
 
-        mockMvc.perform(get("/api/posts"))
+    @Test
+    void getUserPosts_shouldReturnCursorWhenOlderPostsExist() throws Exception {
+        PostDto older = new PostDto(0L, "Older", post.getCreatedAt().minusMinutes(1), 1L, "john");
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(recentPostsService.firstPage(1L)).thenReturn(List.of(postDto, older));
+
+        mockMvc.perform(get("/api/posts/user/1").param("size", "1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].content").value("Orphan post"))
-                .andExpect(jsonPath("$[0].userId").doesNotExist())
-                .andExpect(jsonPath("$[0].username").value("Unknown"));
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(PostCursor.of(postDto).encode()));
+    }
+
+    @Test
+    void getUserPosts_withCursor_shouldSeekPastIt() throws Exception {
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(postRepo.findOlderByUser(1L, postDto.getCreatedAt(), 1L, Limit.of(21))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/posts/user/1").param("cursor", PostCursor.of(postDto).encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+        verifyNoInteractions(recentPostsService);
+    }
+
+    @Test
+    void getUserPosts_largerThanCachedPage_shouldQueryDirectly() throws Exception {
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(postRepo.findLatestByUser(1L, Limit.of(51))).thenReturn(List.of(postDto));
+
+        mockMvc.perform(get("/api/posts/user/1").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1));
+        verifyNoInteractions(recentPostsService);
+    }
+
+    @Test
+    void getUserPosts_unchangedAuthor_shouldReturnNotModifiedWithoutLoadingPosts() throws Exception {
+        user.setVersion(2);
+        user.setPostsVersion(7);
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(feedVersionService.settled(1L)).thenReturn(true);
+        when(feedVersionService.instance()).thenReturn("a");
+
+        mockMvc.perform(get("/api/posts/user/1").header("If-None-Match", "W/\"posts-a-2-7\""))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(recentPostsService);
+    }
+
+    @Test
+    void getUserPosts_changedAuthor_shouldReturnPageWithNewTag() throws Exception {
+        user.setVersion(2);
+        user.setPostsVersion(8);
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(feedVersionService.settled(1L)).thenReturn(true);
+        when(recentPostsService.firstPage(1L)).thenReturn(List.of(postDto));
+        when(feedVersionService.instance()).thenReturn("a");
+
+        mockMvc.perform(get("/api/posts/user/1").header("If-None-Match", "W/\"posts-a-2-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"posts-a-2-8\""))
+                .andExpect(jsonPath("$.items[0].id").value(1));
+    }
+
+    @Test
+    void getUserPosts_notFound() throws Exception {
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/posts/user/1"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
     void handleAllExceptions_shouldReturnInternalServerError() throws Exception {
-        when(postRepo.findAll()).thenThrow(new RuntimeException("Database error"));
+        when(postRepo.findLatest(any(Limit.class))).thenThrow(new RuntimeException("Database error"));
 
         mockMvc.perform(get("/api/posts"))
                 .andExpect(status().isInternalServerError())
@@ -0,0 +1,46 @@
+package com.twitter.controller;
+
+import com.twitter.model.TrendingTopic;
+import com.twitter.service.TrendingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TrendController.class)
+public class TrendControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+    @MockitoBean
+    private TrendingService trendingService;
+
+    @Test
+    void getTrends_shouldReturnTopTopics() throws Exception {
+        when(trendingService.topTrends(10)).thenReturn(List.of(
+                new TrendingTopic("#java", "hashtag", 42),
+                new TrendingTopic("@sandy", "mention", 7)));
+
+        mockMvc.perform(get("/api/trends"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].topic").value("#java"))
+                .andExpect(jsonPath("$[0].count").value(42))
+                .andExpect(jsonPath("$[1].type").value("mention"));
+    }
+
+    @Test
+    void getTrends_shouldCapLimit() throws Exception {
+        when(trendingService.topTrends(50)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/trends").param("limit", "1000"))
+                .andExpect(status().isOk());
+
+        verify(trendingService).topTrends(50);
+    }
+}
@@ -0,0 +1,125 @@
+package com.twitter.controller;
+
+import com.twitter.exception.ResourceNotFoundException;
+import com.twitter.service.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UploadController.class)
+public class UploadControllerTest {
+
+    private static final String HASH = "0a3666a0710c08aa6d0de92ce72beeb5b93124cce1bf3701c9d6cdeb543cb73e";
+    private static final String KEY = "0a/36/" + HASH + ".jpg";
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired private MockMvc mockMvc;
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    private Path blob;
+
+    @BeforeEach
+    void setup() throws Exception {
+        blob = tempDir.resolve(HASH + ".jpg");
+        Files.writeString(blob, "test-content");
+        when(fileStorageService.resolve(KEY)).thenReturn(blob);
+        when(fileStorageService.open(any(Path.class)))
+                .thenAnswer(invocation -> new FileSystemResource(invocation.<Path>getArgument(0)));
+    }
+
+    @Test
+    void getUpload_shouldServeWithValidatorsAndImmutableCaching() throws Exception {
+        mockMvc.perform(get("/uploads/" + KEY))
+                .andExpect(status().isOk())
+                .andExpect(content().string("test-content"))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+    }
+
+    @Test
+    void getUpload_matchingEtag_shouldReturn304WithoutReadingBody() throws Exception {
+        mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(fileStorageService, never()).open(any(Path.class));
+    }
+
+    @Test
+    void getUpload_notModifiedSince_shouldReturn304WithoutReadingBody() throws Exception {
+        String future = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusDays(1));
+
+        mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.IF_MODIFIED_SINCE, future))
+                .andExpect(status().isNotModified());
+
+        verify(fileStorageService, never()).open(any(Path.class));
+    }
+
+    @Test
+    void getUpload_staleEtag_shouldReturnBody() throws Exception {
+        mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string("test-content"));
+    }
+
+    @Test
+    void getUpload_range_shouldReturnPartialContent() throws Exception {
+        mockMvc.perform(get("/uploads/" + KEY).header(HttpHeaders.RANGE, "bytes=0-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("test"))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-3/12"));
+    }
+
+    @Test
+    void getUpload_largeFile_shouldUseSendfile() throws Exception {
+        Files.write(blob, new byte[64 * 1024]);
+
+        mockMvc.perform(get("/uploads/" + KEY).requestAttr(UploadController.SENDFILE_SUPPORT, true))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(new byte[0]))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 64 * 1024))
+                .andExpect(request().attribute(UploadController.SENDFILE_FILENAME, blob.toRealPath().toString()))
+                .andExpect(request().attribute(UploadController.SENDFILE_END, 64L * 1024));
+
+        verify(fileStorageService, never()).open(any(Path.class));
+    }
+
+    @Test
+    void getUpload_missingFile_shouldReturn404() throws Exception {
+        when(fileStorageService.resolve("aa/bb/missing.jpg")).thenReturn(tempDir.resolve("missing.jpg"));
+
+        mockMvc.perform(get("/uploads/aa/bb/missing.jpg"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getUpload_keyOutsideUploadDir_shouldReturn404() throws Exception {
+        when(fileStorageService.resolve(any())).thenThrow(new ResourceNotFoundException("File not found"));
+
+        mockMvc.perform(get("/uploads/../application.properties"))
+                .andExpect(status().isNotFound());
+    }
+}
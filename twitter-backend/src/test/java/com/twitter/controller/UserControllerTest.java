@@ -1,14 +1,28 @@
 package com.twitter.controller;
 
+import com.twitter.exception.UploadRejectedException;
+import com.twitter.model.PurgeProgress;
 import com.twitter.model.User;
+import com.twitter.model.UserProfile;
+import com.twitter.model.UserSuggestion;
+import com.twitter.model.UserSummary;
 import com.twitter.repository.UserRepository;
+import com.twitter.service.AvatarThumbnailService;
+import com.twitter.service.FeedVersionService;
 import com.twitter.service.FileStorageService;
+import com.twitter.service.RecentPostsService;
+import com.twitter.service.TimelineService;
+import com.twitter.service.UserDirectoryService;
+import com.twitter.service.UserProfileService;
+import com.twitter.service.UserPurgeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.multipart.MultipartFile;
@@ -18,6 +32,11 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +53,27 @@ public class UserControllerTest {
     @MockitoBean
     private FileStorageService fileStorageService;
 
+    @MockitoBean
+    private UserPurgeService userPurgeService;
+
+    @MockitoBean
+    private TimelineService timelineService;
+
+    @MockitoBean
+    private UserProfileService userProfileService;
+
+    @MockitoBean
+    private RecentPostsService recentPostsService;
+
+    @MockitoBean
+    private AvatarThumbnailService avatarThumbnailService;
+
+    @MockitoBean
+    private UserDirectoryService userDirectoryService;
+
+    @MockitoBean
+    private FeedVersionService feedVersionService;
+
     private User user;
 
     @BeforeEach
@@ -76,31 +116,128 @@ public class UserControllerTest {
 
 
     @Test
-    void getAllUsers_shouldReturnList() throws Exception {
-        when(userRepo.findAll()).thenReturn(List.of(user));
+    void getAllUsers_shouldReturnSummaryPage() throws Exception {
+        when(userRepo.findSummariesAfterId(0L, Limit.of(21)))
+                .thenReturn(List.of(new UserSummary(1L, "@sandy", "Sandy Doe", "uploads/avatar.jpg", 3L)));
 
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].username").value("Sandy Doe"));
+                .andExpect(jsonPath("$.items[0].username").value("Sandy Doe"))
+                .andExpect(jsonPath("$.items[0].postCount").value(3))
+                .andExpect(jsonPath("$.items[0].posts").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        verify(userRepo, never()).findAll();
+    }
+
+    @Test
+    void getAllUsers_shouldSeekPastCursorAndReportNextOne() throws Exception {
+        when(userRepo.findSummariesAfterId(5L, Limit.of(2))).thenReturn(List.of(
+                new UserSummary(6L, "@six", "Six", null, 0L),
+                new UserSummary(7L, "@seven", "Seven", null, 0L)));
+
+        mockMvc.perform(get("/api/users").param("cursor", "5").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("6"));
+    }
+
+    @Test
+    void getAllUsers_invalidCursor_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users").param("cursor", "abc"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void getUserById_found() throws Exception {
-        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(feedVersionService.instance()).thenReturn("a");
 
         mockMvc.perform(get("/api/users/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"user-a-0-0-0-0\""))
                 .andExpect(jsonPath("$.username").value("Sandy Doe"));
     }
 
+    @Test
+    void getUserById_unchanged_shouldReturnNotModified() throws Exception {
+        user.setVersion(3);
+        user.setFollowerCount(12);
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+        when(feedVersionService.instance()).thenReturn("a");
+
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "W/\"user-a-3-0-12-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getUserById_notFound() throws Exception {
-        when(userRepo.findById(1L)).thenReturn(Optional.empty());
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/users/1"))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getUserByHandle_found() throws Exception {
+        when(userRepo.findIdByHandle("@sandy")).thenReturn(Optional.of(1L));
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+
+        mockMvc.perform(get("/api/users/handle/@sandy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.handle").value("@sandy"));
+    }
+
+    @Test
+    void getUserByHandle_notFound() throws Exception {
+        when(userRepo.findIdByHandle("@nobody")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/users/handle/@nobody"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void suggestUsers_shouldReturnPrefixMatches() throws Exception {
+        when(userDirectoryService.suggest("san", 10))
+                .thenReturn(List.of(new UserSuggestion(1L, "@sandy", "Sandy Doe", null)));
+
+        mockMvc.perform(get("/api/users/suggest").param("q", " san "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].handle").value("@sandy"))
+                .andExpect(jsonPath("$[0].username").value("Sandy Doe"));
+    }
+
+    @Test
+    void getAvatar_shouldRedirectToSmallestSufficientVariant() throws Exception {
+        user.setAvatarFileName("aa/bb/hash.jpg");
+        user.setAvatarVariants("48,96,200");
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+
+        mockMvc.perform(get("/api/users/1/avatar").param("size", "64"))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", "/uploads/aa/bb/hash_96.jpg"));
+    }
+
+    @Test
+    void getAvatar_withoutVariants_shouldRedirectToOriginal() throws Exception {
+        user.setAvatarFileName("aa/bb/hash.jpg");
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+
+        mockMvc.perform(get("/api/users/1/avatar").param("size", "48"))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", "/uploads/aa/bb/hash.jpg"));
+    }
+
+    @Test
+    void getAvatar_noAvatar_shouldReturn404() throws Exception {
+        user.setAvatarUrl(null);
+        when(userProfileService.getProfile(1L)).thenReturn(Optional.of(UserProfile.from(user)));
+
+        mockMvc.perform(get("/api/users/1/avatar"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void createUser_withAvatar_shouldSave() throws Exception {
         when(userRepo.save(any(User.class))).thenReturn(user);
@@ -116,6 +253,22 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.username").value("Sandy Doe"));
     }
 
+    @Test
+    void createUser_shouldPopulateProfileCache() throws Exception {
+        when(userRepo.save(any(User.class))).thenReturn(user);
+
+        mockMvc.perform(multipart("/api/users")
+                        .file(defaultUserParts(false)[0])
+                        .file(defaultUserParts(false)[1])
+                        .file(defaultUserParts(false)[2])
+                        .file(defaultUserParts(false)[3])
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isOk());
+
+        verify(userProfileService).refresh(user);
+        verify(userDirectoryService).put(user);
+    }
+
     @Test
     void createUser_withoutAvatar_shouldSave() throws Exception {
         when(userRepo.save(any(User.class))).thenReturn(user);
@@ -146,9 +299,25 @@ public class UserControllerTest {
     }
 
 
+    @Test
+    void createUser_whenUploadsSaturated_shouldReturnServiceUnavailable() throws Exception {
+        when(fileStorageService.saveFile(any(MultipartFile.class)))
+                .thenThrow(new UploadRejectedException("Too many concurrent uploads, please retry shortly"));
+
+        mockMvc.perform(multipart("/api/users")
+                        .file(defaultUserParts(true)[0])
+                        .file(defaultUserParts(true)[1])
+                        .file(defaultUserParts(true)[2])
+                        .file(defaultUserParts(true)[3])
+                        .file(defaultUserParts(true)[4])
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
     @Test
     void updateUser_withAvatar_shouldUpdateUser() throws Exception {
-        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user));
         when(userRepo.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         mockMvc.perform(multipart("/api/users/1")
@@ -166,9 +335,34 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.username").value("Sandy Doe"));
     }
 
+    @Test
+    void updateUser_replacingAvatar_shouldReleasePreviousBlob() throws Exception {
+        user.setAvatarFileName("aa/bb/old.jpg");
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user));
+        when(userRepo.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(fileStorageService.saveFile(any(MultipartFile.class))).thenReturn("cc/dd/new.jpg");
+
+        mockMvc.perform(multipart("/api/users/1")
+                        .file(defaultUserParts(true)[0])
+                        .file(defaultUserParts(true)[1])
+                        .file(defaultUserParts(true)[2])
+                        .file(defaultUserParts(true)[3])
+                        .file(defaultUserParts(true)[4])
+                        .with(req -> {
+                            req.setMethod("PUT");
+                            return req;
+                        })
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.avatarUrl").value("uploads/cc/dd/new.jpg"));
+
+        verify(fileStorageService).releaseIfUnreferenced("aa/bb/old.jpg");
+        verify(avatarThumbnailService).generateVariantsAsync("cc/dd/new.jpg");
+    }
+
     @Test
     void updateUser_withoutAvatar_shouldUpdateUser() throws Exception {
-        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user));
         when(userRepo.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         mockMvc.perform(multipart("/api/users/1")
@@ -185,9 +379,76 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.username").value("Sandy Doe"));
     }
 
+    @Test
+    void updateUser_shouldEvictProfileCache() throws Exception {
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user));
+        when(userRepo.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(multipart("/api/users/1")
+                        .file(defaultUserParts(false)[0])
+                        .file(defaultUserParts(false)[1])
+                        .file(defaultUserParts(false)[2])
+                        .file(defaultUserParts(false)[3])
+                        .with(req -> {
+                            req.setMethod("PUT");
+                            return req;
+                        })
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isOk());
+
+        verify(userProfileService).evict(1L);
+        verify(userProfileService, never()).refresh(any());
+        verify(userDirectoryService).put(user);
+        verify(feedVersionService, never()).changed(anyLong());
+        verifyNoInteractions(recentPostsService);
+    }
+
+    @Test
+    void updateUser_renamed_shouldChangeFeedVersionAndEvictRecentPosts() throws Exception {
+        user.setUsername("Sandy Old");
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user));
+        when(userRepo.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(multipart("/api/users/1")
+                        .file(defaultUserParts(false)[0])
+                        .file(defaultUserParts(false)[1])
+                        .file(defaultUserParts(false)[2])
+                        .file(defaultUserParts(false)[3])
+                        .with(req -> {
+                            req.setMethod("PUT");
+                            return req;
+                        })
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isOk());
+
+        verify(feedVersionService).changed(1L);
+        verify(recentPostsService).evict(1L);
+    }
+
+    @Test
+    void updateUser_concurrentlyModified_shouldReturnConflict() throws Exception {
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user));
+        when(userRepo.save(any(User.class))).thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        mockMvc.perform(multipart("/api/users/1")
+                        .file(defaultUserParts(false)[0])
+                        .file(defaultUserParts(false)[1])
+                        .file(defaultUserParts(false)[2])
+                        .file(defaultUserParts(false)[3])
+                        .with(req -> {
+                            req.setMethod("PUT");
+                            return req;
+                        })
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Conflict"));
+
+        verify(userProfileService, never()).evict(anyLong());
+    }
+
     @Test
     void updateUser_userNotFound_shouldReturn404() throws Exception {
-        when(userRepo.findById(1L)).thenReturn(Optional.empty());
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.empty());
 
         mockMvc.perform(multipart("/api/users/1")
                         .file(defaultUserParts(false)[0])
@@ -204,7 +465,7 @@ public class UserControllerTest {
 
     @Test
     void updateUser_shouldFailOnAvatarUpload() throws Exception {
-        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user));
         when(fileStorageService.saveFile(any(MultipartFile.class)))
                 .thenThrow(new IOException("Simulated IO Error"));
 
@@ -224,19 +485,47 @@ public class UserControllerTest {
 
 
     @Test
-    void deleteUser_found() throws Exception {
-        when(userRepo.existsById(1L)).thenReturn(true);
+    void deleteUser_found_shouldSoftDeleteAndSchedulePurge() throws Exception {
+        when(userRepo.markDeleted(eq(1L), any())).thenReturn(1);
 
         mockMvc.perform(delete("/api/users/1"))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/users/1/deletion"));
+
+        verify(userRepo, never()).deleteById(any());
+        verify(userProfileService).evict(1L);
+        verify(userDirectoryService).remove(1L);
+        verify(userPurgeService).schedule(1L);
+        verify(feedVersionService).changed();
+        verifyNoInteractions(fileStorageService);
     }
 
     @Test
     void deleteUser_notFound() throws Exception {
-        when(userRepo.existsById(1L)).thenReturn(false);
+        when(userRepo.markDeleted(eq(1L), any())).thenReturn(0);
 
         mockMvc.perform(delete("/api/users/1"))
                 .andExpect(status().isNotFound());
+
+        verifyNoInteractions(userPurgeService);
+    }
+
+    @Test
+    void getDeletionProgress_shouldReportRunningPurge() throws Exception {
+        when(userPurgeService.progress(1L)).thenReturn(
+                Optional.of(new PurgeProgress(1L, PurgeProgress.Status.RUNNING, 3000, 0, 2000, 0)));
+
+        mockMvc.perform(get("/api/users/1/deletion"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.postsPurged").value(3000))
+                .andExpect(jsonPath("$.postsRemaining").value(2000));
+    }
+
+    @Test
+    void getDeletionProgress_noPurge_shouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/users/1/deletion"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -260,7 +549,7 @@ public class UserControllerTest {
     void updateUser_withEmptyAvatar_shouldNotUpdateAvatar() throws Exception {
         MockMultipartFile emptyAvatar = new MockMultipartFile("avatar", "avatar.jpg", "image/jpeg", new byte[0]);
 
-        when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user));
         when(userRepo.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         mockMvc.perform(multipart("/api/users/1")
@@ -0,0 +1,157 @@
+package com.twitter.repository;
+
+import com.twitter.model.Follow;
+import com.twitter.model.Post;
+import com.twitter.model.PostDto;
+import com.twitter.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PostRepositoryTest {
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private PostRepository postRepo;
+
+    private final LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        author = persistUser("john");
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setHandle("@" + name);
+        return entityManager.persist(user);
+    }
+
+    private Post persistPost(String content, LocalDateTime createdAt) {
+        return persistPost(author, content, createdAt);
+    }
+
+    private Post persistPost(User user, String content, LocalDateTime createdAt) {
+        Post post = new Post();
+        post.setUser(user);
+        post.setContent(content);
+        post.setCreatedAt(createdAt);
+        return entityManager.persist(post);
+    }
+
+    @Test
+    void keysetPages_shouldWalkNewestFirstWithoutGapsOrDuplicates() {
+        Post oldest = persistPost("oldest", now.minusMinutes(2));
+        Post tieLow = persistPost("tie-low", now);
+        Post tieHigh = persistPost("tie-high", now);
+        Post newest = persistPost("newest", now.plusMinutes(1));
+        entityManager.flush();
+
+        List<PostDto> first = postRepo.findLatest(Limit.of(2));
+        assertEquals(List.of(newest.getId(), tieHigh.getId()), first.stream().map(PostDto::getId).toList());
+
+        PostDto last = first.get(1);
+        List<PostDto> second = postRepo.findOlderThan(last.getCreatedAt(), last.getId(), Limit.of(2));
+        assertEquals(List.of(tieLow.getId(), oldest.getId()), second.stream().map(PostDto::getId).toList());
+
+        PostDto end = second.get(1);
+        assertTrue(postRepo.findOlderThan(end.getCreatedAt(), end.getId(), Limit.of(2)).isEmpty());
+    }
+
+    @Test
+    void userKeysetPages_shouldOnlyWalkThatUsersPostsNewestFirst() {
+        User other = persistUser("other");
+        Post oldest = persistPost("oldest", now.minusMinutes(2));
+        persistPost(other, "someone else", now.minusMinutes(1));
+        Post tieLow = persistPost("tie-low", now);
+        Post tieHigh = persistPost("tie-high", now);
+        entityManager.flush();
+
+        List<PostDto> first = postRepo.findLatestByUser(author.getId(), Limit.of(2));
+        assertEquals(List.of(tieHigh.getId(), tieLow.getId()), first.stream().map(PostDto::getId).toList());
+
+        PostDto last = first.get(1);
+        List<PostDto> second = postRepo.findOlderByUser(author.getId(), last.getCreatedAt(), last.getId(), Limit.of(2));
+        assertEquals(List.of(oldest.getId()), second.stream().map(PostDto::getId).toList());
+        assertEquals("john", second.get(0).getUsername());
+    }
+
+    @Test
+    void findLatest_shouldIssueSingleStatementRegardlessOfAuthorCount() {
+        for (int i = 0; i < 10; i++) {
+            persistPost(persistUser("author" + i), "post " + i, now.plusSeconds(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<PostDto> feed = postRepo.findLatest(Limit.of(20));
+
+        assertEquals(10, feed.size());
+        assertEquals(10, feed.stream().map(PostDto::getUsername).distinct().count());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findLatest_postWithoutUser_shouldReportUnknownAuthor() {
+        Post orphan = new Post();
+        orphan.setContent("Orphan post");
+        entityManager.persist(orphan);
+        entityManager.flush();
+
+        PostDto dto = postRepo.findLatest(Limit.of(1)).get(0);
+
+        assertEquals("Orphan post", dto.getContent());
+        assertNull(dto.getUserId());
+        assertEquals("Unknown", dto.getUsername());
+    }
+
+    @Test
+    void findHomeTimelineIds_shouldIncludeOwnAndFolloweePostsOnly() {
+        User followee = persistUser("followee");
+        User stranger = persistUser("stranger");
+        Follow follow = new Follow();
+        follow.setFollower(author);
+        follow.setFollowee(followee);
+        entityManager.persist(follow);
+
+        Post own = persistPost("own", now);
+        Post followed = persistPost(followee, "followed", now);
+        persistPost(stranger, "stranger", now);
+        entityManager.flush();
+
+        assertEquals(List.of(followed.getId(), own.getId()), postRepo.findHomeTimelineIds(author.getId(), Limit.of(10)));
+    }
+
+    @Test
+    void feedReads_shouldSkipPostsOfDeletedAuthorsAwaitingPurge() {
+        User deleted = persistUser("gone");
+        Post kept = persistPost("kept", now);
+        Post hidden = persistPost(deleted, "hidden", now.plusMinutes(1));
+        deleted.setDeletedAt(now);
+        entityManager.flush();
+
+        assertEquals(List.of(kept.getId()), postRepo.findLatest(Limit.of(10)).stream().map(PostDto::getId).toList());
+        assertEquals(List.of(kept.getId()), postRepo.findDtosByIdIn(List.of(kept.getId(), hidden.getId())).stream()
+                .map(PostDto::getId).toList());
+        assertEquals(List.of(hidden.getId()), postRepo.findDtosByUser(deleted.getId(), Limit.of(10)).stream()
+                .map(PostDto::getId).toList());
+        assertEquals("hidden", postRepo.findDtoById(hidden.getId()).orElseThrow().getContent());
+    }
+}
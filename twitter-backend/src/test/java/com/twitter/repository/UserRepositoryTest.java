@@ -0,0 +1,181 @@
+package com.twitter.repository;
+
+import com.twitter.model.Follow;
+import com.twitter.model.Post;
+import com.twitter.model.User;
+import com.twitter.model.UserSummary;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserRepositoryTest {
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private UserRepository userRepo;
+
+    private User persistUser(String name, int posts) {
+        User user = new User();
+        user.setUsername(name);
+        user.setHandle("@" + name);
+        entityManager.persist(user);
+        for (int i = 0; i < posts; i++) {
+            Post post = new Post();
+            post.setUser(user);
+            post.setContent(name + " post " + i);
+            entityManager.persist(post);
+        }
+        // What the write path does alongside the inserts.
+        userRepo.adjustPostCount(user.getId(), posts);
+        return user;
+    }
+
+    private Follow persistFollow(User follower, User followee) {
+        Follow follow = new Follow();
+        follow.setFollower(follower);
+        follow.setFollowee(followee);
+        return entityManager.persist(follow);
+    }
+
+    private User reload(User user) {
+        entityManager.clear();
+        return entityManager.find(User.class, user.getId());
+    }
+
+    @Test
+    void findSummariesAfterId_shouldReadPostCountsWithoutLoadingAnyEntity() {
+        User prolific = persistUser("prolific", 25);
+        User quiet = persistUser("quiet", 0);
+        User casual = persistUser("casual", 2);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<UserSummary> summaries = userRepo.findSummariesAfterId(0L, Limit.of(10));
+
+        assertEquals(List.of(prolific.getId(), quiet.getId(), casual.getId()),
+                summaries.stream().map(UserSummary::getId).toList());
+        assertEquals(List.of(25L, 0L, 2L), summaries.stream().map(UserSummary::getPostCount).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(Post.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void findSummariesAfterId_shouldSeekByIdInPages() {
+        User first = persistUser("first", 0);
+        User second = persistUser("second", 0);
+        User third = persistUser("third", 0);
+        entityManager.flush();
+
+        List<UserSummary> page = userRepo.findSummariesAfterId(first.getId(), Limit.of(1));
+
+        assertEquals(List.of(second.getId()), page.stream().map(UserSummary::getId).toList());
+        assertEquals(List.of(third.getId()),
+                userRepo.findSummariesAfterId(second.getId(), Limit.of(5)).stream().map(UserSummary::getId).toList());
+    }
+
+    @Test
+    void adjustPostCount_shouldNeverGoBelowZero() {
+        User user = persistUser("author", 1);
+
+        assertEquals(1, userRepo.adjustPostCount(user.getId(), -1));
+        assertEquals(0, userRepo.adjustPostCount(user.getId(), -1));
+        assertEquals(0, reload(user).getPostCount());
+    }
+
+    @Test
+    void counterUpdates_shouldNotConflictWithProfileEdits() {
+        User user = persistUser("author", 0);
+        User stale = reload(user);
+        long version = stale.getVersion();
+        long postsVersion = stale.getPostsVersion();
+        entityManager.clear();
+
+        userRepo.adjustFollowerCount(user.getId(), 1);
+        userRepo.adjustPostCount(user.getId(), 1);
+        stale.setBio("edited while the counters moved");
+        userRepo.saveAndFlush(stale);
+
+        User reloaded = reload(user);
+        assertEquals(version + 1, reloaded.getVersion());
+        assertEquals(postsVersion + 1, reloaded.getPostsVersion());
+        assertEquals(1, reloaded.getFollowerCount());
+        assertEquals(1, reloaded.getPostCount());
+    }
+
+    @Test
+    void markDeleted_shouldBumpVersionSoStaleSavesCannotRevive() {
+        User user = persistUser("author", 0);
+        User stale = reload(user);
+        entityManager.clear();
+
+        userRepo.markDeleted(user.getId(), LocalDateTime.now());
+
+        entityManager.clear();
+        stale.setBio("edited from an old read");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> userRepo.saveAndFlush(stale));
+    }
+
+    @Test
+    void decrementFollowCounts_shouldTakeBackWhatTheUserContributedThroughTheGivenFollows() {
+        User leaving = persistUser("leaving", 0);
+        User followee = persistUser("followee", 0);
+        User follower = persistUser("follower", 0);
+        List<Long> follows = List.of(persistFollow(leaving, followee).getId(), persistFollow(follower, leaving).getId());
+        userRepo.adjustFollowerCount(followee.getId(), 1);
+        userRepo.adjustFollowingCount(follower.getId(), 1);
+
+        assertEquals(1, userRepo.decrementFollowerCountsOfFollowees(leaving.getId(), follows));
+        assertEquals(1, userRepo.decrementFollowingCountsOfFollowers(leaving.getId(), follows));
+        assertEquals(0, reload(followee).getFollowerCount());
+        assertEquals(0, reload(follower).getFollowingCount());
+    }
+
+    @Test
+    void reconcileCounters_shouldRepairOnlyDriftedRowsInRange() {
+        User drifted = persistUser("drifted", 3);
+        User accurate = persistUser("accurate", 2);
+        User outOfRange = persistUser("outOfRange", 1);
+        persistFollow(accurate, drifted);
+        userRepo.adjustPostCount(drifted.getId(), 5);
+        userRepo.adjustPostCount(outOfRange.getId(), 5);
+        userRepo.adjustFollowingCount(accurate.getId(), 1);
+
+        assertEquals(1, userRepo.reconcileCounters(0L, accurate.getId()));
+
+        User repaired = reload(drifted);
+        assertEquals(3, repaired.getPostCount());
+        assertEquals(1, repaired.getFollowerCount());
+        assertEquals(1, reload(accurate).getFollowingCount());
+        assertEquals(6, reload(outOfRange).getPostCount());
+    }
+
+    @Test
+    void readsAndPurge_shouldOnlySeeDeletedAccountsWhereIntended() {
+        User active = persistUser("active", 0);
+        User deleted = persistUser("deleted", 0);
+        assertEquals(1, userRepo.markDeleted(deleted.getId(), LocalDateTime.now()));
+        assertEquals(0, userRepo.markDeleted(deleted.getId(), LocalDateTime.now()));
+
+        assertTrue(userRepo.findActiveById(deleted.getId()).isEmpty());
+        assertEquals(List.of(active.getId()),
+                userRepo.findSummariesAfterId(0L, Limit.of(10)).stream().map(UserSummary::getId).toList());
+        assertEquals(List.of(deleted.getId()), userRepo.findDeletedIds());
+        assertEquals(0, userRepo.purgeDeleted(active.getId()));
+        assertEquals(1, userRepo.purgeDeleted(deleted.getId()));
+    }
+}
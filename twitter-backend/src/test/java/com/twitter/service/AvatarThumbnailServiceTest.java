@@ -0,0 +1,104 @@
+package com.twitter.service;
+
+import com.twitter.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AvatarThumbnailServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private UserRepository userRepo;
+    private UserProfileService userProfileService;
+    private FileStorageService fileStorageService;
+    private AvatarThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = mock(UserRepository.class);
+        userProfileService = mock(UserProfileService.class);
+        fileStorageService = new FileStorageService(tempDir.toString(), 2, 100, 0, userRepo, new SimpleMeterRegistry());
+        thumbnailService = new AvatarThumbnailService(fileStorageService, userRepo, userProfileService,
+                new int[]{96, 48, 200}, 1, 10);
+    }
+
+    private String storeImage(String filename, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, filename.endsWith(".png") ? "png" : "jpg", bytes);
+        return fileStorageService.saveFile(new MockMultipartFile("avatar", filename, "image/jpeg", bytes.toByteArray()));
+    }
+
+    @Test
+    void generateVariants_shouldWriteSquareVariantsAndRecordThem() throws IOException {
+        String key = storeImage("avatar.jpg", 640, 480);
+        when(userRepo.findIdsByAvatarFileName(key)).thenReturn(List.of(1L, 2L));
+
+        thumbnailService.generateVariants(key);
+
+        for (int size : new int[]{48, 96, 200}) {
+            BufferedImage variant = ImageIO.read(fileStorageService.resolve(AvatarThumbnailService.variantKey(key, size)).toFile());
+            assertEquals(size, variant.getWidth());
+            assertEquals(size, variant.getHeight());
+        }
+        verify(userRepo).updateAvatarVariants(key, "48,96,200");
+        verify(userProfileService).evict(1L);
+        verify(userProfileService).evict(2L);
+    }
+
+    @Test
+    void generateVariants_shouldSkipSizesLargerThanOriginal() throws IOException {
+        String key = storeImage("avatar.png", 100, 120);
+
+        thumbnailService.generateVariants(key);
+
+        assertTrue(AvatarThumbnailService.variantKey(key, 48).endsWith("_48.png"));
+        assertFalse(Files.exists(fileStorageService.resolve(AvatarThumbnailService.variantKey(key, 200))));
+        verify(userRepo).updateAvatarVariants(key, "48,96");
+    }
+
+    @Test
+    void generateVariants_nonImage_shouldRecordNothing() throws IOException {
+        String key = fileStorageService.saveFile(new MockMultipartFile("avatar", "notes.txt", "text/plain", "hi".getBytes()));
+
+        thumbnailService.generateVariants(key);
+
+        verify(userRepo, never()).updateAvatarVariants(anyString(), anyString());
+    }
+
+    @Test
+    void releasingBlob_shouldAlsoDeleteItsVariants() throws IOException {
+        String key = storeImage("avatar.jpg", 300, 300);
+        thumbnailService.generateVariants(key);
+
+        fileStorageService.releaseIfUnreferenced(key);
+
+        assertFalse(Files.exists(fileStorageService.resolve(key)));
+        assertFalse(Files.exists(fileStorageService.resolve(AvatarThumbnailService.variantKey(key, 48))));
+    }
+
+    @Test
+    void variantFor_shouldPickSmallestSufficientSize() {
+        assertEquals("ab/cd/h_96.jpg", AvatarThumbnailService.variantFor("ab/cd/h.jpg", "48,96,200", 50));
+        assertEquals("ab/cd/h_48.png", AvatarThumbnailService.variantFor("ab/cd/h.gif", "48,96,200", 48));
+        assertEquals("ab/cd/h.jpg", AvatarThumbnailService.variantFor("ab/cd/h.jpg", "48,96,200", 400));
+        assertEquals("ab/cd/h.jpg", AvatarThumbnailService.variantFor("ab/cd/h.jpg", null, 48));
+        assertEquals("ab/cd/h.jpg", AvatarThumbnailService.variantFor("ab/cd/h.jpg", "48", 0));
+    }
+}
@@ -0,0 +1,59 @@
+package com.twitter.service;
+
+import com.twitter.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FeedVersionServiceTest {
+
+    private final PostRepository postRepo = mock(PostRepository.class);
+
+    @Test
+    void etag_shouldChangeWithNewestPostAndLocalChanges() {
+        FeedVersionService service = new FeedVersionService(postRepo, 0);
+        when(postRepo.findMaxId()).thenReturn(10L);
+        String initial = service.etag();
+
+        assertTrue(initial.startsWith("W/\"feed-"));
+        assertEquals(initial, service.etag());
+
+        when(postRepo.findMaxId()).thenReturn(11L);
+        String afterInsert = service.etag();
+        assertNotEquals(initial, afterInsert);
+
+        // A deleted post leaves the newest id alone.
+        service.changed();
+        assertNotEquals(afterInsert, service.etag());
+    }
+
+    @Test
+    void withoutReplica_shouldNeverWithholdTags() {
+        FeedVersionService service = new FeedVersionService(postRepo, 0);
+        service.changed(1L);
+
+        assertTrue(service.settled());
+        assertTrue(service.settled(1L));
+        assertNotNull(service.etag());
+    }
+
+    @Test
+    void authorWindow_shouldOnlyCoverThatAuthorsOwnChanges() {
+        FeedVersionService service = new FeedVersionService(postRepo, 60_000);
+        service.changed(1L);
+
+        assertFalse(service.settled(1L));
+        assertTrue(service.settled(2L));
+    }
+
+    @Test
+    void etag_shouldBeWithheldUntilChangeSettles() {
+        FeedVersionService service = new FeedVersionService(postRepo, 60_000);
+        service.changed();
+
+        assertFalse(service.settled());
+        assertNull(service.etag());
+        verifyNoInteractions(postRepo);
+    }
+}
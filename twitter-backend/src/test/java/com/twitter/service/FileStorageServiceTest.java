@@ -1,55 +1,286 @@
 package com.twitter.service;
 
+import com.sun.management.ThreadMXBean;
+import com.twitter.exception.ResourceNotFoundException;
+import com.twitter.exception.UploadRejectedException;
+import com.twitter.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.MockedStatic;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class FileStorageServiceTest {
 
+    @TempDir
+    Path tempDir;
+
+    private Path uploadDir;
+    private UserRepository userRepo;
+    private SimpleMeterRegistry meterRegistry;
     private FileStorageService fileStorageService;
 
     @BeforeEach
     void setUp() {
-        fileStorageService = new FileStorageService();
+        uploadDir = tempDir.resolve("uploads");
+        userRepo = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        fileStorageService = new FileStorageService(uploadDir.toString(), 2, 100, 0, userRepo, meterRegistry);
+    }
+
+    private MockMultipartFile avatar(String filename, String content) {
+        return new MockMultipartFile("avatar", filename, "image/jpeg", content.getBytes());
+    }
+
+    private long storedFileCount() throws IOException {
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
     }
 
     @Test
     void saveFile_shouldSaveSuccessfully() throws IOException {
-        MockMultipartFile mockFile = new MockMultipartFile(
-                "avatar", "avatar.jpg", "image/jpeg", "test-content".getBytes());
+        String key = fileStorageService.saveFile(avatar("avatar.jpg", "test-content"));
 
-        try (MockedStatic<Files> filesMock = mockStatic(Files.class)) {
-            Path dummyPath = Paths.get("uploads/dummy.jpg");
+        // sha256("test-content") = 0a3666a0...
+        assertTrue(key.matches("0a/36/0a3666a0[0-9a-f]{56}\\.jpg"), key);
+        assertEquals("uploads/" + key, FileStorageService.urlFor(key));
+        assertEquals("test-content", Files.readString(uploadDir.resolve(key)));
+        assertEquals(1, storedFileCount(), "temp file should have been moved, not copied");
+    }
 
-            filesMock.when(() -> Files.createDirectories(any(Path.class))).thenReturn(dummyPath);
-            filesMock.when(() -> Files.write(any(Path.class), any(byte[].class))).thenReturn(dummyPath);
+    @Test
+    void saveFile_identicalContent_shouldBeStoredOnce() throws IOException {
+        String first = fileStorageService.saveFile(avatar("a.jpg", "same-bytes"));
+        String second = fileStorageService.saveFile(avatar("b.JPG", "same-bytes"));
+        String other = fileStorageService.saveFile(avatar("c.jpg", "other-bytes"));
 
-            String result = fileStorageService.saveFile(mockFile);
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        assertEquals(2, storedFileCount());
+    }
 
-            assertTrue(result.startsWith("uploads/"));
-            assertTrue(result.endsWith("avatar.jpg"));
-            filesMock.verify(() -> Files.createDirectories(any(Path.class)));
-            filesMock.verify(() -> Files.write(any(Path.class), eq("test-content".getBytes())));
-        }
+    @Test
+    void saveFile_shouldRecordDurationAndSizePerOutcome() throws IOException {
+        fileStorageService.saveFile(avatar("a.jpg", "same-bytes"));
+        fileStorageService.saveFile(avatar("b.jpg", "same-bytes"));
+
+        assertEquals(1, meterRegistry.get("uploads.duration").tag("outcome", "stored").timer().count());
+        assertEquals(1, meterRegistry.get("uploads.duration").tag("outcome", "deduplicated").timer().count());
+        assertEquals(2, meterRegistry.get("uploads.size").summary().count());
+        assertEquals(20, meterRegistry.get("uploads.size").summary().totalAmount());
+        assertEquals(0, meterRegistry.get("uploads.active").gauge().value());
+    }
+
+    @Test
+    void saveFile_shouldIgnorePathAndUnsafeExtensionInOriginalName() throws IOException {
+        String key = fileStorageService.saveFile(avatar("../../etc/avatar.j$p", "data"));
+
+        assertFalse(key.contains(".."));
+        assertTrue(key.endsWith(".bin"));
+        assertTrue(Files.exists(uploadDir.resolve(key)));
+    }
+
+    @Test
+    void resolve_shouldStayInsideUploadDir() {
+        assertEquals(uploadDir.toAbsolutePath().resolve("ab/cd/x.jpg"), fileStorageService.resolve("ab/cd/x.jpg"));
+        assertThrows(ResourceNotFoundException.class, () -> fileStorageService.resolve("../secret.txt"));
+        assertThrows(ResourceNotFoundException.class, () -> fileStorageService.resolve("ab/../../secret.txt"));
+    }
+
+    @Test
+    void releaseIfUnreferenced_shouldDeleteOrphanedBlob() throws IOException {
+        String key = fileStorageService.saveFile(avatar("avatar.jpg", "orphan"));
+        when(userRepo.countByAvatarFileName(key)).thenReturn(0L);
+
+        fileStorageService.releaseIfUnreferenced(key);
+
+        assertFalse(Files.exists(uploadDir.resolve(key)));
+    }
+
+    @Test
+    void releaseIfUnreferenced_shouldKeepVariantsWhileAnotherExtensionHoldsTheSameContent() throws IOException {
+        String png = fileStorageService.saveFile(avatar("avatar.png", "same-pixels"));
+        String jpg = fileStorageService.saveFile(avatar("avatar.jpg", "same-pixels"));
+        Path variant = uploadDir.resolve(AvatarThumbnailService.variantKey(jpg, 48));
+        Files.writeString(variant, "thumbnail");
+        when(userRepo.countByAvatarFileName(png)).thenReturn(0L);
+        when(userRepo.countByAvatarFileName(jpg)).thenReturn(1L);
+
+        fileStorageService.releaseIfUnreferenced(png);
+
+        assertFalse(Files.exists(uploadDir.resolve(png)));
+        assertTrue(Files.exists(variant));
+
+        when(userRepo.countByAvatarFileName(jpg)).thenReturn(0L);
+        fileStorageService.releaseIfUnreferenced(jpg);
+
+        assertFalse(Files.exists(variant));
+    }
+
+    @Test
+    void releaseIfUnreferenced_shouldKeepSharedBlob() throws IOException {
+        String key = fileStorageService.saveFile(avatar("avatar.jpg", "shared"));
+        when(userRepo.countByAvatarFileName(key)).thenReturn(1L);
+
+        fileStorageService.releaseIfUnreferenced(key);
+
+        assertTrue(Files.exists(uploadDir.resolve(key)));
+    }
+
+    @Test
+    void releaseIfUnreferenced_shouldSpareRecentlyUsedBlobDuringGracePeriod() throws IOException {
+        FileStorageService delayed = new FileStorageService(uploadDir.toString(), 2, 100, 60_000, userRepo, new SimpleMeterRegistry());
+        String key = delayed.saveFile(avatar("avatar.jpg", "fresh"));
+
+        delayed.releaseIfUnreferenced(key);
+
+        assertTrue(Files.exists(uploadDir.resolve(key)));
+        verifyNoInteractions(userRepo);
+    }
+
+    @Test
+    void releaseIfUnreferenced_blobUsedDuringGracePeriod_shouldBeCollectedLater() throws Exception {
+        FileStorageService delayed = new FileStorageService(uploadDir.toString(), 2, 100, 300, userRepo, new SimpleMeterRegistry());
+        String key = delayed.saveFile(avatar("avatar.jpg", "reused"));
+        Path blob = uploadDir.resolve(key);
+        when(userRepo.countByAvatarFileName(key)).thenReturn(0L);
+
+        delayed.releaseIfUnreferenced(key);
+        // A deduplicated upload touches the blob, then its user save fails.
+        Files.setLastModifiedTime(blob, FileTime.fromMillis(System.currentTimeMillis() + 100));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (Files.exists(blob) && System.currentTimeMillis() < deadline) Thread.sleep(20);
+        assertFalse(Files.exists(blob));
+        verify(userRepo, atLeast(2)).countByAvatarFileName(key);
     }
 
     @Test
-    void saveFile_shouldThrowIOException() {
+    void saveFile_shouldThrowIOException() throws IOException {
+        Files.writeString(uploadDir, "not a directory");
         MockMultipartFile mockFile = new MockMultipartFile(
                 "avatar", "avatar.jpg", "image/jpeg", "data".getBytes());
 
-        try (MockedStatic<Files> filesMock = mockStatic(Files.class)) {
-            filesMock.when(() -> Files.createDirectories(any(Path.class))).thenThrow(new IOException("Failed to create"));
+        assertThrows(IOException.class, () -> fileStorageService.saveFile(mockFile));
+    }
+
+    @Test
+    void saveFile_heapAllocationShouldNotGrowWithFileSize() throws IOException {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        fileStorageService.saveFile(new GeneratedFile(1024, null)); // warm up class loading and JIT paths
+
+        long small = allocatedBy(threads, new GeneratedFile(1024 * 1024, null));
+        long large = allocatedBy(threads, new GeneratedFile(64L * 1024 * 1024, null));
+
+        assertTrue(large < 2 * 1024 * 1024, "64 MB upload allocated " + large + " bytes");
+        assertTrue(large < small + 1024 * 1024, "allocation grew with size: " + small + " -> " + large);
+    }
+
+    @Test
+    void saveFile_shouldRejectWhenAllSlotsAreBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> save(new GeneratedFile(16, release)));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> save(new GeneratedFile(16, release)));
+
+        Thread.sleep(50);
+        assertThrows(UploadRejectedException.class, () -> fileStorageService.saveFile(new GeneratedFile(16, null)));
+        assertEquals(2, meterRegistry.get("uploads.active").gauge().value());
+        assertEquals(1, meterRegistry.get("uploads.rejected").counter().count());
+
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(second.get(5, TimeUnit.SECONDS));
+        assertNotNull(fileStorageService.saveFile(new GeneratedFile(16, null)));
+    }
+
+    private long allocatedBy(ThreadMXBean threads, MultipartFile file) throws IOException {
+        long before = threads.getCurrentThreadAllocatedBytes();
+        fileStorageService.saveFile(file);
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
 
-            assertThrows(IOException.class, () -> fileStorageService.saveFile(mockFile));
+    private String save(MultipartFile file) {
+        try {
+            return fileStorageService.saveFile(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
     }
-}
 
+    /**
+     * Upload whose content is generated on the fly, so the test itself holds no copy of it on the heap.
+     * Reading it as a byte array fails, proving the service only ever streams.
+     */
+    private static final class GeneratedFile implements MultipartFile {
+        private final long size;
+        private final CountDownLatch gate;
+
+        GeneratedFile(long size, CountDownLatch gate) {
+            this.size = size;
+            this.gate = gate;
+        }
+
+        @Override public String getName() { return "avatar"; }
+        @Override public String getOriginalFilename() { return "avatar.bin"; }
+        @Override public String getContentType() { return "application/octet-stream"; }
+        @Override public boolean isEmpty() { return size == 0; }
+        @Override public long getSize() { return size; }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("uploads must be streamed");
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private long remaining = size;
+
+                @Override
+                public int read() {
+                    byte[] one = new byte[1];
+                    return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    awaitGate();
+                    if (remaining == 0) return -1;
+                    int n = (int) Math.min(len, remaining);
+                    for (int i = 0; i < n; i++) b[off + i] = (byte) (remaining - i);
+                    remaining -= n;
+                    return n;
+                }
+            };
+        }
+
+        private void awaitGate() {
+            if (gate == null) return;
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void transferTo(java.io.File dest) throws IOException {
+            transferTo(dest.toPath());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.twitter.service;
+
+import com.twitter.model.PostCursor;
+import com.twitter.model.PostDto;
+import com.twitter.repository.PostRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PostEventBusTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private PostRepository postRepo;
+    private PostEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        postRepo = mock(PostRepository.class);
+        bus = new PostEventBus(postRepo, 2, 3, TimeUnit.HOURS.toMillis(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    private static PostDto post(long id) {
+        return new PostDto(id, "post " + id, NOW.plusSeconds(id), 1L, "john");
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void publish_shouldDeliverToLiveSubscriber() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(emitter, null);
+
+        bus.publish(post(1));
+
+        await(() -> emitter.events.size() == 1);
+        assertEquals("post:1", emitter.events.get(0));
+        verifyNoInteractions(postRepo);
+    }
+
+    @Test
+    void subscribe_withCursor_shouldReplayMissedPostsBeforeLiveOnesWithoutDuplicates() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        when(postRepo.findNewerThan(NOW.plusSeconds(1), 1L, Limit.of(4))).thenAnswer(invocation -> {
+            // Published while the replay query is running: 3 is also in the replay, 4 is not.
+            bus.publish(post(3));
+            bus.publish(post(4));
+            return List.of(post(2), post(3));
+        });
+
+        bus.subscribe(emitter, PostCursor.of(post(1)));
+
+        await(() -> emitter.events.size() == 3);
+        Thread.sleep(50);
+        assertEquals(List.of("post:2", "post:3", "post:4"), emitter.events);
+    }
+
+    @Test
+    void subscribe_gapLargerThanReplayLimit_shouldAskClientToResync() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        when(postRepo.findNewerThan(any(), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(post(2), post(3), post(4), post(5)));
+
+        bus.subscribe(emitter, PostCursor.of(post(1)));
+
+        assertEquals(List.of("resync"), emitter.events);
+        assertEquals(1, bus.subscriberCount());
+    }
+
+    @Test
+    void publish_shouldDisconnectSlowSubscriberWithoutBlockingOthers() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.blockSends();
+        RecordingEmitter fast = new RecordingEmitter();
+        bus.subscribe(slow, null);
+        bus.subscribe(fast, null);
+
+        bus.publish(post(1));
+        await(() -> slow.sendsStarted > 0);
+        for (int n = 2; n <= 4; n++) {
+            int delivered = n - 1;
+            await(() -> fast.events.size() == delivered);
+            bus.publish(post(n));
+        }
+
+        assertTrue(slow.completed);
+        assertEquals(1, bus.subscriberCount());
+        await(() -> fast.events.size() == 4);
+        slow.unblockSends();
+    }
+
+    @Test
+    void sendHeartbeats_shouldWriteCommentToIdleSubscribers() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        bus.subscribe(emitter, null);
+
+        bus.sendHeartbeats();
+
+        await(() -> emitter.events.size() == 1);
+        assertEquals("heartbeat", emitter.events.get(0));
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private volatile boolean blocking;
+        volatile int sendsStarted;
+        volatile boolean completed;
+
+        void blockSends() {
+            blocking = true;
+        }
+
+        void unblockSends() {
+            gate.countDown();
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sendsStarted++;
+            if (blocking) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder raw = new StringBuilder();
+            String summary = null;
+            for (var data : builder.build()) {
+                if (data.getData() instanceof PostDto post) summary = "post:" + post.getId();
+                else raw.append(data.getData());
+            }
+            if (summary == null) summary = raw.indexOf(":heartbeat") >= 0 ? "heartbeat" : raw.indexOf("event:resync") >= 0 ? "resync" : raw.toString();
+            events.add(summary);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+}
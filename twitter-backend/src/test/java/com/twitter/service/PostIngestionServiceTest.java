@@ -0,0 +1,116 @@
+package com.twitter.service;
+
+import com.twitter.exception.IngestionRejectedException;
+import com.twitter.model.Post;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PostIngestionServiceTest {
+
+    private final PostWriter postWriter = mock(PostWriter.class);
+    private final AtomicLong ids = new AtomicLong();
+    private PostIngestionService service;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    private static Post post(String content) {
+        Post post = new Post();
+        post.setContent(content);
+        return post;
+    }
+
+    private void assignIdsOnSave() {
+        when(postWriter.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Post> posts = invocation.getArgument(0);
+            posts.forEach(post -> post.setId(ids.incrementAndGet()));
+            return posts;
+        });
+    }
+
+    @Test
+    void submit_directMode_shouldSaveImmediately() {
+        service = new PostIngestionService(postWriter, "direct", 50, 10, 5);
+        Post post = post("hello");
+        when(postWriter.save(post)).thenReturn(post);
+
+        assertTrue(service.submit(post).isDone());
+        verify(postWriter).save(post);
+        verify(postWriter, never()).saveAll(anyList());
+    }
+
+    @Test
+    void submit_batchedMode_shouldGroupQueuedPostsIntoOneSaveAll() throws Exception {
+        service = new PostIngestionService(postWriter, "batched", 50, 100, 200);
+        assignIdsOnSave();
+
+        List<CompletableFuture<Post>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) results.add(service.submit(post("post " + i)));
+
+        for (CompletableFuture<Post> result : results) {
+            assertNotNull(result.get(5, TimeUnit.SECONDS).getId());
+        }
+        verify(postWriter, times(1)).saveAll(argThat(posts -> ((List<?>) posts).size() == 10));
+        verify(postWriter, never()).save(any());
+    }
+
+    @Test
+    void submit_batchedMode_shouldSplitBatchesAtBatchSize() throws Exception {
+        service = new PostIngestionService(postWriter, "batched", 4, 100, 200);
+        assignIdsOnSave();
+
+        List<CompletableFuture<Post>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) results.add(service.submit(post("post " + i)));
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        verify(postWriter, atLeast(3)).saveAll(argThat(posts -> ((List<?>) posts).size() <= 4));
+    }
+
+    @Test
+    void submit_batchedMode_shouldFailEveryCallerOfAFailedBatch() throws Exception {
+        service = new PostIngestionService(postWriter, "batched", 50, 100, 200);
+        when(postWriter.saveAll(anyList())).thenThrow(new IllegalStateException("constraint violated"));
+
+        CompletableFuture<Post> first = service.submit(post("a"));
+        CompletableFuture<Post> second = service.submit(post("b"));
+
+        for (CompletableFuture<Post> result : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void submit_batchedMode_shouldRejectWhenQueueIsFull() throws Exception {
+        service = new PostIngestionService(postWriter, "batched", 1, 1, 0);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(postWriter.saveAll(anyList())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return invocation.getArgument(0);
+        });
+
+        CompletableFuture<Post> inFlight = service.submit(post("a"));
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        service.submit(post("b"));
+
+        assertThrows(IngestionRejectedException.class, () -> service.submit(post("c")));
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,140 @@
+package com.twitter.service;
+
+import com.twitter.model.PostDto;
+import com.twitter.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PostSearchServiceTest {
+
+    private PostRepository postRepo;
+    private PostSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        postRepo = mock(PostRepository.class);
+        searchService = new PostSearchService(postRepo, 2);
+    }
+
+    private static PostDto post(long id, String content) {
+        return new PostDto(id, content, LocalDateTime.now(), 1L, "john");
+    }
+
+    @Test
+    void tokenize_shouldLowercaseAndSplitOnNonWordCharacters() {
+        assertEquals(List.of("hello", "world", "java21", "rocks"),
+                PostSearchService.tokenize("Hello, WORLD! #Java21 rocks..."));
+    }
+
+    @Test
+    void search_shouldRequireEveryTermAndRankByBm25() {
+        searchService.index(1, "spring boot makes java easy");
+        searchService.index(2, "java java java and more java");
+        searchService.index(3, "python is not java");
+        searchService.index(4, "spring is a season");
+
+        assertEquals(List.of(2L, 3L, 1L), searchService.search("java", 0, 10));
+        assertEquals(List.of(1L), searchService.search("Spring JAVA", 0, 10));
+        assertEquals(List.of(), searchService.search("kotlin", 0, 10));
+    }
+
+    @Test
+    void search_shouldMatchQuotedPhrasesByPosition() {
+        searchService.index(1, "new york is big");
+        searchService.index(2, "york has a new mayor");
+
+        assertEquals(List.of(1L), searchService.search("\"new york\"", 0, 10));
+        assertEquals(2, searchService.search("new york", 0, 10).size());
+    }
+
+    @Test
+    void search_shouldPageThroughHits() {
+        for (long id = 1; id <= 5; id++) searchService.index(id, "same words here");
+
+        assertEquals(List.of(5L, 4L), searchService.search("words", 0, 2));
+        assertEquals(List.of(3L, 2L), searchService.search("words", 2, 2));
+        assertEquals(List.of(1L), searchService.search("words", 4, 2));
+    }
+
+    @Test
+    void index_shouldAcceptOutOfOrderIdsAndIgnoreDuplicates() {
+        searchService.index(10, "alpha beta");
+        searchService.index(3, "alpha gamma");
+        searchService.index(7, "alpha beta");
+        searchService.index(10, "alpha beta");
+
+        assertEquals(3, searchService.search("alpha", 0, 10).size());
+        assertEquals(List.of(10L, 7L), searchService.search("alpha beta", 0, 10));
+        assertEquals(List.of(3L), searchService.search("gamma", 0, 10));
+    }
+
+    @Test
+    void remove_shouldDropPostFromEveryTermAndRanking() {
+        searchService.index(1, "java rocks");
+        searchService.index(2, "java rules");
+        searchService.index(3, "java rocks hard");
+
+        searchService.remove(3, "java rocks hard");
+        searchService.remove(3, "java rocks hard");
+        searchService.remove(99, "java never indexed");
+
+        assertEquals(List.of(2L, 1L), searchService.search("java", 0, 10));
+        assertEquals(List.of(1L), searchService.search("rocks", 0, 10));
+        assertEquals(List.of(), searchService.search("hard", 0, 10));
+        // Out-of-order entries still waiting for a merge can be removed too.
+        searchService.index(0, "java late");
+        searchService.remove(0, "java late");
+        assertEquals(List.of(2L, 1L), searchService.search("java", 0, 10));
+    }
+
+    @Test
+    void rebuild_shouldIndexAllPostsInKeysetBatches() {
+        when(postRepo.findDtosAfterId(0L, Limit.of(2))).thenReturn(List.of(post(1, "first post"), post(2, "second post")));
+        when(postRepo.findDtosAfterId(2L, Limit.of(2))).thenReturn(List.of(post(5, "third post")));
+
+        searchService.rebuild();
+
+        assertEquals(List.of(5L, 2L, 1L), searchService.search("post", 0, 10));
+        verify(postRepo, times(2)).findDtosAfterId(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void rebuild_shouldDeferLiveIndexingUntilItHasFinished() {
+        when(postRepo.findDtosAfterId(0L, Limit.of(2))).thenAnswer(invocation -> {
+            // A post created while the rebuild runs, and one the rebuild is about to read as well.
+            searchService.index(9, "live post");
+            searchService.index(2, "second post");
+            assertEquals(List.of(), searchService.search("post", 0, 10));
+            return List.of(post(1, "first post"), post(2, "second post"));
+        });
+        when(postRepo.findDtosAfterId(2L, Limit.of(2))).thenReturn(List.of());
+
+        searchService.rebuild();
+
+        assertTrue(searchService.isReady());
+        assertEquals(List.of(9L, 2L, 1L), searchService.search("post", 0, 10));
+        searchService.index(10, "after rebuild post");
+        assertEquals(4, searchService.search("post", 0, 10).size());
+    }
+
+    @Test
+    void index_shouldMergeOutOfOrderIdsAcrossSkipIntervals() {
+        for (long id = 2; id <= 400; id += 2) searchService.index(id, "common term");
+        for (long id = 399; id >= 1; id -= 2) searchService.index(id, "common term");
+        searchService.index(100, "common term");
+
+        List<Long> hits = searchService.search("common", 0, 1000);
+        assertEquals(400, hits.size());
+        assertEquals(400L, hits.get(0));
+        assertEquals(1L, hits.get(399));
+        assertEquals(List.of(257L), searchService.search("common term", 143, 1));
+    }
+}
@@ -0,0 +1,91 @@
+package com.twitter.service;
+
+import com.twitter.model.Post;
+import com.twitter.model.PostDto;
+import com.twitter.model.User;
+import com.twitter.repository.PostRepository;
+import com.twitter.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PostWriterTest {
+
+    private final PostRepository postRepo = mock(PostRepository.class);
+    private final UserRepository userRepo = mock(UserRepository.class);
+    private final PostSearchService postSearchService = mock(PostSearchService.class);
+    private final PostWriter writer = new PostWriter(postRepo, userRepo, postSearchService);
+
+    private static PostDto dto(long id, long authorId) {
+        return new PostDto(id, "post " + id, LocalDateTime.now(), authorId, "author");
+    }
+
+    private static Post post(long authorId) {
+        User author = new User();
+        author.setId(authorId);
+        Post post = new Post();
+        post.setUser(author);
+        return post;
+    }
+
+    @Test
+    void save_shouldIncrementAuthorPostCount() {
+        Post post = post(1);
+        when(postRepo.save(post)).thenReturn(post);
+
+        assertSame(post, writer.save(post));
+        verify(userRepo).adjustPostCount(1L, 1);
+    }
+
+    @Test
+    void saveAll_shouldIssueOneUpdatePerAuthorInIdOrder() {
+        List<Post> posts = List.of(post(7), post(3), post(7), post(7), post(3));
+        when(postRepo.saveAll(posts)).thenReturn(posts);
+
+        writer.saveAll(posts);
+
+        InOrder order = inOrder(userRepo);
+        order.verify(userRepo).adjustPostCount(3L, 2L);
+        order.verify(userRepo).adjustPostCount(7L, 3L);
+        verifyNoMoreInteractions(userRepo);
+    }
+
+    @Test
+    void delete_shouldDecrementOnlyWhenTheRowWasRemoved() {
+        when(postRepo.findDtoById(5L)).thenReturn(Optional.of(dto(5, 1)));
+        when(postRepo.deletePost(5L)).thenReturn(1, 0);
+
+        assertEquals(Optional.of(1L), writer.delete(5L));
+        assertEquals(Optional.empty(), writer.delete(5L));
+        verify(userRepo, times(1)).adjustPostCount(1L, -1);
+        verify(postSearchService, times(1)).remove(5L, "post 5");
+    }
+
+    @Test
+    void delete_unknownPost_shouldNotTouchCounters() {
+        when(postRepo.findDtoById(5L)).thenReturn(Optional.empty());
+
+        assertTrue(writer.delete(5L).isEmpty());
+        verify(postRepo, never()).deletePost(anyLong());
+        verifyNoInteractions(userRepo, postSearchService);
+    }
+
+    @Test
+    void deleteChunkByAuthor_shouldDecrementAndUnindexTheChunk() {
+        when(postRepo.findDtosByUser(1L, Limit.of(2))).thenReturn(List.of(dto(3, 1), dto(4, 1)));
+        when(postRepo.deleteByIdIn(List.of(3L, 4L))).thenReturn(2);
+
+        assertEquals(2, writer.deleteChunkByAuthor(1L, 2));
+        verify(userRepo).adjustPostCount(1L, -2);
+        verify(postSearchService).remove(3L, "post 3");
+        verify(postSearchService).remove(4L, "post 4");
+    }
+}
@@ -0,0 +1,106 @@
+package com.twitter.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingListTest {
+
+    private static int[] positions(long doc) {
+        return new int[]{(int) (doc % 3), (int) (doc % 3) + 2};
+    }
+
+    private static List<Long> docs(PostingList.Snapshot snapshot) {
+        List<Long> docs = new ArrayList<>();
+        PostingList.Cursor cursor = snapshot.cursor();
+        while (cursor.next()) {
+            assertArrayEquals(positions(cursor.doc()), cursor.positions());
+            assertEquals(2, cursor.frequency());
+            assertEquals((int) cursor.doc() % 7 + 2, cursor.docLength());
+            docs.add(cursor.doc());
+        }
+        return docs;
+    }
+
+    private static void add(PostingList list, long doc) {
+        list.add(doc, positions(doc), (int) doc % 7 + 2);
+    }
+
+    @Test
+    void snapshot_shouldApplyPendingChangesWithoutReencoding() {
+        PostingList list = new PostingList();
+        for (long doc = 10; doc <= 1000; doc += 10) add(list, doc);
+        byte[] encoded = list.snapshot().data();
+
+        assertTrue(list.remove(500));
+        assertFalse(list.remove(500));
+        add(list, 505);
+        add(list, 5);
+        PostingList.Snapshot snapshot = list.snapshot();
+
+        assertSame(encoded, snapshot.data());
+        assertEquals(101, snapshot.docCount());
+        List<Long> docs = docs(snapshot);
+        assertEquals(5L, docs.get(0));
+        assertFalse(docs.contains(500L));
+        assertEquals(505L, docs.get(docs.indexOf(490L) + 1));
+
+        PostingList.Cursor cursor = snapshot.cursor();
+        assertTrue(cursor.advance(495));
+        assertEquals(505L, cursor.doc());
+        assertTrue(cursor.advance(1000));
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    void pendingChanges_shouldBeMergedOncePastTheThreshold() {
+        PostingList list = new PostingList();
+        for (long doc = 1; doc <= 2 * PostingList.MIN_PENDING; doc++) add(list, doc);
+        byte[] encoded = list.snapshot().data();
+
+        for (long doc = 1; doc <= PostingList.MIN_PENDING; doc++) list.remove(doc);
+        assertSame(encoded, list.snapshot().data());
+        list.remove(PostingList.MIN_PENDING + 1);
+
+        PostingList.Snapshot merged = list.snapshot();
+        assertNotSame(encoded, merged.data());
+        assertEquals(0, merged.removedDocs().length);
+        assertEquals(PostingList.MIN_PENDING - 1, merged.docCount());
+    }
+
+    @Test
+    void mixedWritesAndReads_shouldMatchASortedSet() {
+        Random random = new Random(7);
+        PostingList list = new PostingList();
+        TreeSet<Long> expected = new TreeSet<>();
+        long next = 1000;
+        for (int step = 0; step < 20_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 5) {
+                long doc = next++;
+                add(list, doc);
+                expected.add(doc);
+            } else if (action < 7) {
+                long doc = random.nextInt((int) next);
+                assertEquals(expected.add(doc), list.add(doc, positions(doc), (int) doc % 7 + 2));
+            } else if (action < 9) {
+                long doc = random.nextInt((int) next);
+                assertEquals(expected.remove(doc), list.remove(doc));
+            } else {
+                PostingList.Snapshot snapshot = list.snapshot();
+                assertEquals(expected.size(), snapshot.docCount());
+                assertEquals(List.copyOf(expected), docs(snapshot));
+                long target = random.nextInt((int) next + 1);
+                PostingList.Cursor cursor = snapshot.cursor();
+                Long ceiling = expected.ceiling(target);
+                assertEquals(ceiling != null, cursor.advance(target));
+                if (ceiling != null) assertEquals(ceiling, cursor.doc());
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.twitter.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.twitter.model.PostDto;
+import com.twitter.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class RecentPostsServiceTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(RecentPostsService.class)
+    static class CachingConfig {
+        @Bean
+        CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(RecentPostsService.CACHE_NAME);
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100));
+            cacheManager.setAsyncCacheMode(true);
+            return cacheManager;
+        }
+    }
+
+    @MockitoBean
+    private PostRepository postRepo;
+
+    @Autowired private RecentPostsService recentPostsService;
+    @Autowired private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCache() {
+        cacheManager.getCache(RecentPostsService.CACHE_NAME).clear();
+    }
+
+    private static PostDto post(long id) {
+        return new PostDto(id, "post " + id, LocalDateTime.now(), 1L, "john");
+    }
+
+    @Test
+    void firstPage_shouldLoadOneExtraRowOnceThenServeFromCache() {
+        Limit firstPage = Limit.of(RecentPostsService.FIRST_PAGE_SIZE + 1);
+        when(postRepo.findLatestByUser(1L, firstPage)).thenReturn(List.of(post(2), post(1)));
+
+        assertEquals(2, recentPostsService.firstPage(1L).size());
+        assertEquals(2, recentPostsService.firstPage(1L).size());
+
+        verify(postRepo, times(1)).findLatestByUser(1L, firstPage);
+    }
+
+    @Test
+    void evict_shouldExposeNewPostOnNextRead() {
+        Limit firstPage = Limit.of(RecentPostsService.FIRST_PAGE_SIZE + 1);
+        when(postRepo.findLatestByUser(1L, firstPage)).thenReturn(List.of(post(1)));
+        recentPostsService.firstPage(1L);
+
+        when(postRepo.findLatestByUser(1L, firstPage)).thenReturn(List.of(post(2), post(1)));
+        recentPostsService.evict(1L);
+
+        assertEquals(2L, recentPostsService.firstPage(1L).get(0).getId());
+    }
+}
@@ -0,0 +1,148 @@
+package com.twitter.service;
+
+import com.twitter.model.CursorPage;
+import com.twitter.model.PostDto;
+import com.twitter.repository.FollowRepository;
+import com.twitter.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TimelineServiceTest {
+
+    private PostRepository postRepo;
+    private FollowRepository followRepo;
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        postRepo = mock(PostRepository.class);
+        followRepo = mock(FollowRepository.class);
+        timelineService = new TimelineService(postRepo, followRepo, 4, 2, 2);
+
+        when(postRepo.findDtosByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new PostDto(id, "post " + id, LocalDateTime.now(), 1L, "john")).toList();
+        });
+    }
+
+    private List<Long> ids(CursorPage<PostDto> page) {
+        return page.getItems().stream().map(PostDto::getId).toList();
+    }
+
+    @Test
+    void homeTimeline_shouldSeedFromDatabaseOnFirstRead() {
+        when(postRepo.findHomeTimelineIds(1L, Limit.of(4))).thenReturn(List.of(3L, 2L, 1L));
+
+        assertEquals(List.of(3L, 2L), ids(timelineService.homeTimeline(1L, Long.MAX_VALUE, 2)));
+        assertEquals(List.of(1L), ids(timelineService.homeTimeline(1L, 2L, 2)));
+        verify(postRepo, times(1)).findHomeTimelineIds(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void onPostCreated_shouldFanOutToMaterializedFollowerTimelines() {
+        when(postRepo.findHomeTimelineIds(eq(1L), any(Limit.class))).thenReturn(List.of(1L));
+        timelineService.homeTimeline(1L, Long.MAX_VALUE, 10);
+        when(followRepo.findFollowerIds(eq(7L), any(Limit.class))).thenReturn(List.of(1L, 5L));
+
+        timelineService.onPostCreated(7L, 10L);
+
+        assertEquals(List.of(10L, 1L), ids(timelineService.homeTimeline(1L, Long.MAX_VALUE, 10)));
+        verify(postRepo, times(1)).findHomeTimelineIds(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void ringBuffer_shouldKeepOnlyNewestEntries() {
+        when(postRepo.findHomeTimelineIds(eq(1L), any(Limit.class))).thenReturn(List.of());
+        timelineService.homeTimeline(1L, Long.MAX_VALUE, 10);
+        when(followRepo.findFollowerIds(eq(7L), any(Limit.class))).thenReturn(List.of(1L));
+
+        for (long postId = 1; postId <= 6; postId++) {
+            timelineService.onPostCreated(7L, postId);
+        }
+
+        assertEquals(List.of(6L, 5L, 4L, 3L), ids(timelineService.homeTimeline(1L, Long.MAX_VALUE, 10)));
+    }
+
+    @Test
+    void highFanoutAuthor_shouldBeMergedOnRead() {
+        when(postRepo.findHomeTimelineIds(eq(1L), any(Limit.class))).thenReturn(List.of(2L));
+        timelineService.homeTimeline(1L, Long.MAX_VALUE, 10);
+        when(followRepo.findFollowerIds(eq(9L), any(Limit.class))).thenReturn(List.of(1L, 3L, 4L));
+
+        timelineService.onPostCreated(9L, 20L);
+
+        when(followRepo.findFolloweeIdsAmong(eq(1L), anyCollection())).thenReturn(List.of(9L));
+        when(postRepo.findIdsByAuthorsBefore(List.of(9L), Long.MAX_VALUE, Limit.of(11))).thenReturn(List.of(20L));
+        assertEquals(List.of(20L, 2L), ids(timelineService.homeTimeline(1L, Long.MAX_VALUE, 10)));
+
+        timelineService.onPostCreated(9L, 21L);
+        verify(followRepo, times(1)).findFollowerIds(eq(9L), any(Limit.class));
+    }
+
+    @Test
+    void invalidate_shouldForceRebuild() {
+        when(postRepo.findHomeTimelineIds(eq(1L), any(Limit.class))).thenReturn(List.of(1L));
+        timelineService.homeTimeline(1L, Long.MAX_VALUE, 10);
+
+        timelineService.invalidate(1L);
+        timelineService.homeTimeline(1L, Long.MAX_VALUE, 10);
+
+        verify(postRepo, times(2)).findHomeTimelineIds(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void homeTimeline_shouldTopUpPastPostsThatNoLongerLoad() {
+        when(postRepo.findHomeTimelineIds(eq(1L), any(Limit.class))).thenReturn(List.of(4L, 3L, 2L, 1L));
+        when(postRepo.findDtosByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != 3L)
+                    .map(id -> new PostDto(id, "post " + id, LocalDateTime.now(), 1L, "john")).toList();
+        });
+
+        CursorPage<PostDto> first = timelineService.homeTimeline(1L, Long.MAX_VALUE, 2);
+        assertEquals(List.of(4L, 2L), ids(first));
+        assertEquals("2", first.getNextCursor());
+
+        CursorPage<PostDto> last = timelineService.homeTimeline(1L, 2L, 2);
+        assertEquals(List.of(1L), ids(last));
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void homeTimeline_shouldEndWithoutCursorOnExactlyFullLastPage() {
+        when(postRepo.findHomeTimelineIds(eq(1L), any(Limit.class))).thenReturn(List.of(2L, 1L));
+
+        CursorPage<PostDto> page = timelineService.homeTimeline(1L, Long.MAX_VALUE, 2);
+
+        assertEquals(List.of(2L, 1L), ids(page));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void materializedTimelines_shouldBeBounded() {
+        when(postRepo.findHomeTimelineIds(anyLong(), any(Limit.class))).thenReturn(List.of());
+        for (long userId = 1; userId <= 50; userId++) {
+            timelineService.homeTimeline(userId, Long.MAX_VALUE, 10);
+        }
+        when(followRepo.findFollowerIds(eq(7L), any(Limit.class)))
+                .thenReturn(LongStream.rangeClosed(1, 50).boxed().toList());
+
+        timelineService.onPostCreated(7L, 100L);
+
+        // Evicted timelines ignore the fan-out and are rebuilt from the database on their next read.
+        long materialized = LongStream.rangeClosed(1, 50)
+                .filter(userId -> !timelineService.homeTimeline(userId, Long.MAX_VALUE, 10).getItems().isEmpty())
+                .count();
+        assertTrue(materialized <= 2, () -> materialized + " timelines kept");
+    }
+}
@@ -0,0 +1,122 @@
+package com.twitter.service;
+
+import com.twitter.model.TrendingTopic;
+import com.twitter.model.User;
+import com.twitter.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TrendingServiceTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+    private UserRepository userRepo;
+    private UserDirectoryService userDirectory;
+    private TrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = mock(UserRepository.class);
+        when(userRepo.findExistingHandles(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> handles = invocation.getArgument(0);
+            return handles.stream().filter("@sandy"::equals).toList();
+        });
+        userDirectory = new UserDirectoryService(userRepo, 100);
+        trendingService = new TrendingService(userRepo, userDirectory, 60, 12, 3, 1, 10, now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        trendingService.shutdown();
+    }
+
+    private List<String> topics() {
+        return trendingService.topTrends(10).stream().map(TrendingTopic::getTopic).toList();
+    }
+
+    @Test
+    void recordPost_shouldCountHashtagsOncePerPostCaseInsensitively() {
+        trendingService.recordPost("Loving #Java and #java and #spring");
+        trendingService.recordPost("#java again");
+
+        List<TrendingTopic> trends = trendingService.topTrends(10);
+        assertEquals(new TrendingTopic("#java", "hashtag", 2), trends.get(0));
+        assertEquals(new TrendingTopic("#spring", "hashtag", 1), trends.get(1));
+    }
+
+    @Test
+    void recordPost_shouldOnlyCountMentionsOfExistingUsers() {
+        trendingService.recordPost("hi @sandy and @nobody, mail me at me@example.com");
+
+        assertEquals(List.of(new TrendingTopic("@sandy", "mention", 1)), trendingService.topTrends(10));
+        verify(userRepo).findExistingHandles(List.of("@sandy", "@nobody"));
+    }
+
+    @Test
+    void recordPost_onceDirectoryIsLoaded_shouldResolveMentionsInMemory() {
+        User sandy = new User();
+        sandy.setId(1L);
+        sandy.setHandle("@Sandy");
+        sandy.setUsername("Sandy Doe");
+        when(userRepo.findSuggestionsAfterId(eq(0L), any(Limit.class))).thenReturn(List.of());
+        userDirectory.load();
+        userDirectory.put(sandy);
+
+        trendingService.recordPost("hi @sandy and @SANDY and @nobody");
+
+        assertEquals(List.of(new TrendingTopic("@Sandy", "mention", 1)), trendingService.topTrends(10));
+        verify(userRepo, never()).findExistingHandles(anyCollection());
+    }
+
+    @Test
+    void recordPost_withoutMentions_shouldNotQueryUsers() {
+        trendingService.recordPost("just a #tag");
+
+        verifyNoInteractions(userRepo);
+    }
+
+    @Test
+    void topTrends_shouldForgetCountsOutsideTheWindow() {
+        trendingService.recordPost("#old");
+        now.addAndGet(TimeUnit.MINUTES.toMillis(30));
+        trendingService.recordPost("#recent");
+
+        assertEquals(List.of("#old", "#recent"), topics());
+
+        now.addAndGet(TimeUnit.MINUTES.toMillis(40));
+        assertEquals(List.of("#recent"), topics());
+    }
+
+    @Test
+    void topTrends_shouldKeepHeavyHittersWithinBoundedCandidates() {
+        for (int i = 0; i < 50; i++) trendingService.recordPost("#hot #warm");
+        for (int i = 0; i < 20; i++) trendingService.recordPost("#warm #mild");
+        for (int i = 0; i < 100; i++) trendingService.recordPost("#rare" + i);
+
+        assertEquals(List.of("#warm", "#hot", "#mild"), topics().subList(0, 3));
+        assertTrue(trendingService.topTrends(50).size() <= 6);
+    }
+
+    @Test
+    void topTrends_afterBurstLeavesWindow_shouldAdmitSmallerNewTopics() {
+        for (int i = 0; i < 50; i++) trendingService.recordPost("#burst1 #burst2 #burst3");
+        for (int i = 0; i < 5; i++) trendingService.recordPost("#late" + i);
+        assertEquals(List.of("#burst1", "#burst2", "#burst3"), topics());
+
+        now.addAndGet(TimeUnit.MINUTES.toMillis(70));
+        trendingService.recordPost("#fresh");
+        trendingService.recordPost("#fresh");
+
+        assertEquals(List.of(new TrendingTopic("#fresh", "hashtag", 2)), trendingService.topTrends(10));
+    }
+}
@@ -0,0 +1,99 @@
+package com.twitter.service;
+
+import com.twitter.model.User;
+import com.twitter.model.UserSuggestion;
+import com.twitter.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserDirectoryServiceTest {
+
+    private UserRepository userRepo;
+    private UserDirectoryService directory;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = mock(UserRepository.class);
+        directory = new UserDirectoryService(userRepo, 2);
+    }
+
+    private static User user(long id, String handle, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setHandle(handle);
+        user.setUsername(username);
+        return user;
+    }
+
+    private List<Long> suggest(String query, int limit) {
+        return directory.suggest(query, limit).stream().map(UserSuggestion::getId).toList();
+    }
+
+    @Test
+    void suggest_shouldMatchHandlePrefixesBeforeUsernamePrefixes() {
+        directory.put(user(1, "@sandy", "Sandra"));
+        directory.put(user(2, "@sam", "Samuel"));
+        directory.put(user(3, "@bob", "Sandy Bob"));
+        directory.put(user(4, "@alice", "Alice"));
+
+        assertEquals(List.of(2L, 1L), suggest("sa", 10).subList(0, 2));
+        assertEquals(List.of(1L, 3L), suggest("@SAND", 10));
+        assertEquals(List.of(2L), suggest("sa", 1));
+        assertEquals(List.of(), suggest("zz", 10));
+    }
+
+    @Test
+    void suggest_shouldReturnEachUserOnce() {
+        directory.put(user(1, "@sandy", "Sandy"));
+
+        assertEquals(List.of(1L), suggest("sand", 10));
+    }
+
+    @Test
+    void put_shouldReplacePreviousHandleAndUsername() {
+        directory.put(user(1, "@sandy", "Sandy"));
+        directory.put(user(1, "@cassandra", "Cass"));
+
+        assertTrue(directory.findByHandle("@sandy").isEmpty());
+        assertEquals(List.of(), suggest("sand", 10));
+        assertEquals(1L, directory.findByHandle("CASSANDRA").orElseThrow().getId());
+    }
+
+    @Test
+    void remove_shouldDropUserFromBothIndexes() {
+        directory.put(user(1, "@sandy", "Sandy"));
+
+        directory.remove(1L);
+
+        assertTrue(directory.findByHandle("@sandy").isEmpty());
+        assertEquals(List.of(), suggest("s", 10));
+    }
+
+    @Test
+    void load_shouldReadAllUsersInBatchesWithoutOverridingLiveChanges() {
+        when(userRepo.findSuggestionsAfterId(0L, Limit.of(2))).thenReturn(List.of(
+                new UserSuggestion(1L, "@old", "Old Name", null),
+                new UserSuggestion(2L, "@gone", "Gone", null)));
+        when(userRepo.findSuggestionsAfterId(2L, Limit.of(2))).thenReturn(List.of(
+                new UserSuggestion(3L, "@third", "Third", null)));
+        directory.put(user(1, "@new", "New Name"));
+        directory.remove(2L);
+
+        assertFalse(directory.isReady());
+        directory.load();
+
+        assertTrue(directory.isReady());
+        assertEquals(1L, directory.findByHandle("@new").orElseThrow().getId());
+        assertTrue(directory.findByHandle("@old").isEmpty());
+        assertTrue(directory.findByHandle("@gone").isEmpty());
+        assertEquals(3L, directory.findByHandle("third").orElseThrow().getId());
+        verify(userRepo, times(2)).findSuggestionsAfterId(anyLong(), any(Limit.class));
+    }
+}
@@ -0,0 +1,115 @@
+package com.twitter.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.twitter.model.User;
+import com.twitter.model.UserProfile;
+import com.twitter.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class UserProfileServiceTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(UserProfileService.class)
+    static class CachingConfig {
+        @Bean
+        CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(UserProfileService.CACHE_NAME);
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats());
+            cacheManager.setAsyncCacheMode(true);
+            return cacheManager;
+        }
+    }
+
+    @MockitoBean
+    private UserRepository userRepo;
+
+    @Autowired private UserProfileService userProfileService;
+    @Autowired private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCache() {
+        cacheManager.getCache(UserProfileService.CACHE_NAME).clear();
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername(username);
+        user.setHandle("@sandy");
+        return user;
+    }
+
+    @Test
+    void getProfile_shouldLoadOnceThenServeFromCache() {
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user("Sandy")));
+
+        assertEquals("Sandy", userProfileService.getProfile(1L).map(UserProfile::getUsername).orElseThrow());
+        assertEquals("Sandy", userProfileService.getProfile(1L).map(UserProfile::getUsername).orElseThrow());
+
+        verify(userRepo, times(1)).findActiveById(1L);
+    }
+
+    @Test
+    void refresh_shouldReplaceCachedProfile() {
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user("Sandy")));
+        userProfileService.getProfile(1L);
+
+        userProfileService.refresh(user("Sandy Updated"));
+
+        assertEquals("Sandy Updated", userProfileService.getProfile(1L).map(UserProfile::getUsername).orElseThrow());
+        verify(userRepo, times(1)).findActiveById(1L);
+    }
+
+    @Test
+    void evict_shouldForceReload() {
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.of(user("Sandy")));
+        userProfileService.getProfile(1L);
+
+        userProfileService.evict(1L);
+        when(userRepo.findActiveById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(userProfileService.getProfile(1L).isEmpty());
+        verify(userRepo, times(2)).findActiveById(1L);
+    }
+
+    @Test
+    void refresh_racingWithSlowLoad_shouldNeverLeaveStaleProfile() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepo.findActiveById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(user("Stale"));
+        });
+
+        CompletableFuture<Optional<UserProfile>> reader = CompletableFuture.supplyAsync(() -> userProfileService.getProfile(1L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<UserProfile>> writer = CompletableFuture.supplyAsync(() -> userProfileService.refresh(user("Fresh")));
+        Thread.sleep(50);
+        release.countDown();
+        reader.get(5, TimeUnit.SECONDS);
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertEquals("Fresh", userProfileService.getProfile(1L).map(UserProfile::getUsername).orElseThrow());
+    }
+}
@@ -0,0 +1,136 @@
+package com.twitter.service;
+
+import com.twitter.model.Follow;
+import com.twitter.model.Post;
+import com.twitter.model.PurgeProgress;
+import com.twitter.model.User;
+import com.twitter.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {"app.users.purge.chunk-size=2", "app.users.purge.chunk-pause-ms=0"})
+@Import({UserPurgeService.class, PostWriter.class, FollowWriter.class})
+class UserPurgeServiceTest {
+
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private UserRepository userRepo;
+    @Autowired private UserPurgeService purgeService;
+    @MockitoBean private FileStorageService fileStorageService;
+    @MockitoBean private PostSearchService postSearchService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        purgeService.shutdown();
+    }
+
+    private User persistUser(String name, int posts) {
+        User user = new User();
+        user.setUsername(name);
+        user.setHandle("@" + name);
+        user.setAvatarFileName("aa/bb/" + name + ".jpg");
+        entityManager.persist(user);
+        for (int i = 0; i < posts; i++) {
+            Post post = new Post();
+            post.setUser(user);
+            post.setContent(name + " post " + i);
+            entityManager.persist(post);
+        }
+        userRepo.adjustPostCount(user.getId(), posts);
+        return user;
+    }
+
+    private void persistFollow(User follower, User followee) {
+        Follow follow = new Follow();
+        follow.setFollower(follower);
+        follow.setFollowee(followee);
+        entityManager.persist(follow);
+        userRepo.adjustFollowingCount(follower.getId(), 1);
+        userRepo.adjustFollowerCount(followee.getId(), 1);
+    }
+
+    private long count(String entity) {
+        return entityManager.getEntityManager()
+                .createQuery("select count(e) from " + entity + " e", Long.class).getSingleResult();
+    }
+
+    @Test
+    void purge_shouldRemovePostsFollowsRowAndAvatarInChunks() throws InterruptedException {
+        User deleted = persistUser("deleted", 5);
+        User fan = persistUser("fan", 0);
+        User idol = persistUser("idol", 1);
+        persistFollow(fan, deleted);
+        persistFollow(deleted, idol);
+        persistFollow(fan, idol);
+        userRepo.markDeleted(deleted.getId(), LocalDateTime.now());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(purgeService.purge(deleted.getId()));
+
+        entityManager.clear();
+        assertNull(entityManager.find(User.class, deleted.getId()));
+        assertEquals(1, count("Post"));
+        assertEquals(1, count("Follow"));
+        assertEquals(1, entityManager.find(User.class, fan.getId()).getFollowingCount());
+        assertEquals(1, entityManager.find(User.class, idol.getId()).getFollowerCount());
+        verify(fileStorageService).releaseIfUnreferenced("aa/bb/deleted.jpg");
+    }
+
+    @Test
+    void purge_activeUser_shouldLeaveItAlone() throws InterruptedException {
+        User active = persistUser("active", 2);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(purgeService.purge(active.getId()));
+
+        assertNotNull(entityManager.find(User.class, active.getId()));
+        assertEquals(2, count("Post"));
+        verifyNoInteractions(fileStorageService);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void failedPurge_shouldStayVisibleAsRetryingAndRunAgainAfterBackoff() throws InterruptedException {
+        UserRepository users = mock(UserRepository.class);
+        PostWriter posts = mock(PostWriter.class);
+        FollowWriter follows = mock(FollowWriter.class);
+        User deleted = new User();
+        deleted.setId(7L);
+        deleted.setDeletedAt(LocalDateTime.now());
+        when(users.findById(7L)).thenReturn(Optional.of(deleted));
+        when(posts.deleteChunkByAuthor(7L, 2)).thenThrow(new QueryTimeoutException("lock timeout")).thenReturn(0);
+        UserPurgeService service = new UserPurgeService(users, posts, follows, fileStorageService, 2, 0, 300, 1000);
+        try {
+            service.schedule(7L);
+
+            await(() -> service.progress(7L).map(PurgeProgress::getStatus)
+                    .filter(PurgeProgress.Status.RETRYING::equals).isPresent());
+            assertEquals(1, service.progress(7L).orElseThrow().getFailedAttempts());
+            service.schedule(7L);
+
+            await(() -> service.progress(7L).isEmpty());
+            verify(users, times(1)).purgeDeleted(7L);
+        } finally {
+            service.shutdown();
+        }
+    }
+}
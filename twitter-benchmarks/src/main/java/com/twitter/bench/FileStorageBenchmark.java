@@ -0,0 +1,74 @@
+package com.twitter.bench;
+
+import com.twitter.service.FileStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileStorageService#saveFile} throughput for new content (write, hash and rename into place) and for
+ * content that is already stored (write and hash, then discard the temp file). The upload directory is wiped
+ * between iterations so new blobs do not accumulate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileStorageBenchmark {
+
+    @Param({"4096", "65536"})
+    private int bytes;
+
+    private Path uploadDir;
+    private FileStorageService fileStorageService;
+    private byte[] content;
+    private MockMultipartFile duplicate;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("bench-uploads");
+        // The user repository is only consulted when collecting unreferenced blobs, which never happens here.
+        fileStorageService = new FileStorageService(uploadDir.toString(), 8, 2000, 0, null, new SimpleMeterRegistry());
+        content = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(content);
+        duplicate = new MockMultipartFile("avatar", "avatar.jpg", "image/jpeg", content.clone());
+    }
+
+    @Setup(Level.Iteration)
+    public void storeDuplicateOnce() throws IOException {
+        fileStorageService.saveFile(duplicate);
+    }
+
+    @TearDown(Level.Iteration)
+    public void wipe() throws IOException {
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public String saveNewContent() throws IOException {
+        byte[] unique = content.clone();
+        ByteBuffer.wrap(unique).putLong(++sequence);
+        return fileStorageService.saveFile(new MockMultipartFile("avatar", "avatar.jpg", "image/jpeg", unique));
+    }
+
+    @Benchmark
+    public String saveDuplicateContent() throws IOException {
+        return fileStorageService.saveFile(duplicate);
+    }
+}
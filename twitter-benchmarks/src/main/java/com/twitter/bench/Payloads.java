@@ -0,0 +1,45 @@
+package com.twitter.bench;
+
+import com.twitter.model.CursorPage;
+import com.twitter.model.PostDto;
+import com.twitter.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic response bodies shaped like the feed page and the user list the API returns.
+ */
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    static CursorPage<PostDto> postPage(int size) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PostDto> posts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            posts.add(new PostDto((long) i, "Post number " + i + " with a #hashtag and a mention of @user" + (i % 10),
+                    now.minusSeconds(i), (long) (i % 10), "user" + (i % 10)));
+        }
+        return new CursorPage<>(posts, "MjAyNS0wMS0wMVQxMjowMDowMHwxMjM0");
+    }
+
+    static List<User> users(int size) {
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUsername("User " + i);
+            user.setHandle("@user" + i);
+            user.setAvatarFileName("ab/cd/abcd" + i + ".jpg");
+            user.setAvatarUrl("uploads/ab/cd/abcd" + i + ".jpg");
+            user.setAvatarVariants("48,96,200");
+            user.setLocation("Lisbon");
+            user.setBio("Bio of user " + i);
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,70 @@
+package com.twitter.bench;
+
+import com.twitter.model.Post;
+import com.twitter.model.PostDto;
+import com.twitter.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping of a feed page, the in-memory half of {@code getAllPosts} before the feed moved to a JPQL
+ * constructor projection. Still the shape of any code that maps loaded {@link Post} entities for the API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostDtoMappingBenchmark {
+
+    @Param({"20", "100", "1000"})
+    private int size;
+
+    private List<Post> posts;
+
+    @Setup
+    public void setUp() {
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUsername("user" + i);
+            user.setHandle("@user" + i);
+            authors.add(user);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        posts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Post post = new Post();
+            post.setId((long) i);
+            post.setContent("Post number " + i + " with a #hashtag and a mention of @user" + (i % 10));
+            post.setCreatedAt(now.minusSeconds(i));
+            // Every 50th post has no author, which the API reports as "Unknown".
+            post.setUser(i % 50 == 49 ? null : authors.get(i % authors.size()));
+            posts.add(post);
+        }
+    }
+
+    private static PostDto toDto(Post post) {
+        User user = post.getUser();
+        return new PostDto(post.getId(), post.getContent(), post.getCreatedAt(),
+                user != null ? user.getId() : null, user != null ? user.getUsername() : "Unknown");
+    }
+
+    @Benchmark
+    public List<PostDto> stream() {
+        return posts.stream().map(PostDtoMappingBenchmark::toDto).toList();
+    }
+
+    @Benchmark
+    public List<PostDto> presizedLoop() {
+        List<PostDto> dtos = new ArrayList<>(posts.size());
+        for (Post post : posts) dtos.add(toDto(post));
+        return dtos;
+    }
+}
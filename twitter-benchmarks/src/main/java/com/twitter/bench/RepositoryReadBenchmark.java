@@ -0,0 +1,112 @@
+package com.twitter.bench;
+
+import com.twitter.TwitterBackendApplication;
+import com.twitter.model.PostDto;
+import com.twitter.model.UserSummary;
+import com.twitter.repository.PostRepository;
+import com.twitter.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths behind the feed, profile and user-list endpoints, run through the real repositories against an
+ * in-memory H2 seeded with {@code users} users and {@code posts} posts. Posts are spread evenly over the users
+ * and one minute apart, newest last.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryReadBenchmark {
+    private static final int PAGE = 20;
+
+    @Param({"1000"})
+    private int users;
+
+    @Param({"100000"})
+    private int posts;
+
+    private ConfigurableApplicationContext context;
+    private PostRepository postRepo;
+    private UserRepository userRepo;
+    private PostDto middle;
+
+    @Setup
+    public void setUp() {
+        // Command-line arguments, so they win over application.properties.
+        context = new SpringApplicationBuilder(TwitterBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench-reads",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+        postRepo = context.getBean(PostRepository.class);
+        userRepo = context.getBean(UserRepository.class);
+        seed(context.getBean(JdbcTemplate.class));
+        middle = postRepo.findOlderThan(LocalDateTime.now().plusYears(1), Long.MAX_VALUE, Limit.of(posts / 2))
+                .getLast();
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        List<Object[]> userRows = new ArrayList<>(users);
+        for (long id = 1; id <= users; id++) {
+            userRows.add(new Object[]{id, "User " + id, "@user" + id});
+        }
+        jdbc.batchUpdate("insert into users (id, username, handle) values (?, ?, ?)", userRows);
+
+        LocalDateTime start = LocalDateTime.now().minusMinutes(posts);
+        List<Object[]> postRows = new ArrayList<>(10_000);
+        for (long id = 1; id <= posts; id++) {
+            postRows.add(new Object[]{id, (id % users) + 1, "Post number " + id + " #bench",
+                    Timestamp.valueOf(start.plusMinutes(id))});
+            if (postRows.size() == 10_000 || id == posts) {
+                jdbc.batchUpdate("insert into post (id, user_id, content, created_at) values (?, ?, ?, ?)", postRows);
+                postRows.clear();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+
+    @Benchmark
+    public List<PostDto> feedFirstPage() {
+        return postRepo.findLatest(Limit.of(PAGE + 1));
+    }
+
+    @Benchmark
+    public List<PostDto> feedDeepPage() {
+        return postRepo.findOlderThan(middle.getCreatedAt(), middle.getId(), Limit.of(PAGE + 1));
+    }
+
+    @Benchmark
+    public List<PostDto> userPostsFirstPage() {
+        return postRepo.findLatestByUser(randomUserId(), Limit.of(PAGE + 1));
+    }
+
+    @Benchmark
+    public List<UserSummary> userSummaryPage() {
+        return userRepo.findSummariesAfterId(randomUserId(), Limit.of(PAGE + 1));
+    }
+}
@@ -0,0 +1,80 @@
+package com.twitter.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.twitter.model.CursorPage;
+import com.twitter.model.PostDto;
+import com.twitter.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding cost of the response formats the API can negotiate: JSON, CBOR and Smile, each with and without the
+ * gzip that Tomcat's response compression applies. Scores are the time to produce the bytes sent; the byte counts
+ * themselves are printed once per trial as {@code # wire size} lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    public enum Format { JSON, CBOR, SMILE }
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private Format format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private CursorPage<PostDto> postPage;
+    private List<User> users;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same builder settings as the converters in WireFormatConfig.
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        objectMapper = switch (format) {
+            case JSON -> builder.build();
+            case CBOR -> builder.factory(new CBORFactory()).build();
+            case SMILE -> builder.factory(new SmileFactory()).build();
+        };
+        postPage = Payloads.postPage(size);
+        users = Payloads.users(size);
+        System.out.printf("%n# wire size %s%s, %d items: postPage=%d bytes, users=%d bytes%n",
+                format, gzip ? "+gzip" : "", size, postPage().length, users().length);
+    }
+
+    @Benchmark
+    public byte[] postPage() throws IOException {
+        return encode(postPage);
+    }
+
+    @Benchmark
+    public byte[] users() throws IOException {
+        return encode(users);
+    }
+
+    private byte[] encode(Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        if (!gzip) return bytes;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream compressed = new GZIPOutputStream(out)) {
+            compressed.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
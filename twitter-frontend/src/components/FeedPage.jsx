@@ -4,21 +4,29 @@ import { Link } from 'react-router-dom';
 
 function FeedPage() {
   const [posts, setPosts] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [error, setError] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  const fetchPage = (cursor) => {
+    const params = cursor ? { cursor } : {};
+    return api.get('/api/posts', { params }).then(res => {
+      const data = res.data;
+      if (data && Array.isArray(data.items)) {
+        setPosts(prev => (cursor ? [...prev, ...data.items] : data.items));
+        setNextCursor(data.nextCursor || null);
+      } else {
+        console.warn('Expected a page of posts but got:', data);
+        if (!cursor) setPosts([]);
+        setNextCursor(null);
+      }
+    });
+  };
 
   useEffect(() => {
-    api.get('/api/posts')
-      .then(res => {
-        const data = res.data;
-        if (Array.isArray(data)) {
-          setPosts(data);
-        } else {
-          console.warn('Expected array but got:', data);
-          setPosts([]);
-        }
-        setLoading(false);
-      })
+    fetchPage(null)
+      .then(() => setLoading(false))
       .catch(err => {
         console.error('Error fetching posts:', err);
         setError('Failed to load posts.');
@@ -26,6 +34,26 @@ function FeedPage() {
       });
   }, []);
 
+  // Live updates: the browser resends Last-Event-ID on reconnect, so missed posts are replayed by the server.
+  useEffect(() => {
+    const source = new EventSource(`${import.meta.env.VITE_API_URL}api/posts/stream`);
+    source.addEventListener('post', event => {
+      const post = JSON.parse(event.data);
+      setPosts(prev => (prev.some(p => p.id === post.id) ? prev : [post, ...prev]));
+    });
+    source.addEventListener('resync', () => {
+      fetchPage(null).catch(err => console.error('Error reloading posts:', err));
+    });
+    return () => source.close();
+  }, []);
+
+  const handleLoadMore = () => {
+    setLoadingMore(true);
+    fetchPage(nextCursor)
+      .catch(err => console.error('Error fetching more posts:', err))
+      .finally(() => setLoadingMore(false));
+  };
+
   if (loading) return <p>Loading posts...</p>;
   if (error) return <p>{error}</p>;
 
@@ -47,6 +75,11 @@ function FeedPage() {
           </div>
         ))
       )}
+      {nextCursor && (
+        <button onClick={handleLoadMore} disabled={loadingMore}>
+          {loadingMore ? 'Loading...' : 'Load more'}
+        </button>
+      )}
     </div>
   );
 }
@@ -4,15 +4,29 @@ import api from '../api/axios';
 
 function HomePage() {
   const [users, setUsers] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState(null);
 
+  const fetchPage = (cursor) => {
+    const params = cursor ? { cursor } : {};
+    return api.get('/api/users', { params }).then(res => {
+      const data = res.data;
+      if (data && Array.isArray(data.items)) {
+        setUsers(prev => (cursor ? [...prev, ...data.items] : data.items));
+        setNextCursor(data.nextCursor || null);
+      } else {
+        console.warn('Expected a page of users but got:', data);
+        if (!cursor) setUsers([]);
+        setNextCursor(null);
+      }
+    });
+  };
+
   useEffect(() => {
-    api.get('/api/users')
-      .then(res => {
-        setUsers(Array.isArray(res.data) ? res.data : []);
-        setLoading(false);
-      })
+    fetchPage(null)
+      .then(() => setLoading(false))
       .catch(err => {
         console.error('Failed to fetch users:', err);
         setError('Failed to load users.');
@@ -20,6 +34,13 @@ function HomePage() {
       });
   }, []);
 
+  const handleLoadMore = () => {
+    setLoadingMore(true);
+    fetchPage(nextCursor)
+      .catch(err => console.error('Failed to fetch more users:', err))
+      .finally(() => setLoadingMore(false));
+  };
+
   if (loading) return <p>Loading users...</p>;
   if (error) return <p>{error}</p>;
 
@@ -34,9 +55,15 @@ function HomePage() {
             <Link to={`/profile/${user.id}`}>
               <strong>{user.username}</strong>
             </Link>
+            <small> {user.handle} · {user.postCount} posts</small>
           </div>
         ))
       )}
+      {nextCursor && (
+        <button onClick={handleLoadMore} disabled={loadingMore}>
+          {loadingMore ? 'Loading...' : 'Load more'}
+        </button>
+      )}
     </div>
   );
 }
@@ -7,18 +7,28 @@ function UserProfilePage() {
   const navigate = useNavigate();
   const [user, setUser] = useState(null);
   const [posts, setPosts] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [newPost, setNewPost] = useState('');
 
+  const fetchPosts = (cursor) => {
+    const params = cursor ? { cursor } : {};
+    return api.get(`/api/posts/user/${id}`, { params }).then(res => {
+      const items = Array.isArray(res.data?.items) ? res.data.items : [];
+      setPosts(prev => (cursor ? [...prev, ...items] : items));
+      setNextCursor(res.data?.nextCursor || null);
+    });
+  };
+
   useEffect(() => {
     api.get(`/api/users/${id}`).then(res => setUser(res.data));
-    api.get(`/api/posts/user/${id}`).then(res => setPosts(res.data));
+    fetchPosts(null);
   }, [id]);
 
   const handlePost = () => {
     if (!newPost.trim()) return;
     api.post(`/api/posts/user/${id}`, { content: newPost }).then(() => {
       setNewPost('');
-      api.get(`/api/posts/user/${id}`).then(res => setPosts(res.data));
+      fetchPosts(null);
     });
   };
 
@@ -33,9 +43,10 @@ function UserProfilePage() {
   if (!user) return <p>Loading...</p>;
 
 const backendUrl = import.meta.env.VITE_API_URL;
+// The backend redirects to the smallest pre-generated variant that still fills 180px.
 const avatarUrl = user.avatarUrl?.startsWith('http')
   ? user.avatarUrl
-  : `${backendUrl}${user.avatarUrl}`;
+  : `${backendUrl}api/users/${user.id}/avatar?size=180`;
 
   return (
   <div className="container">
@@ -77,6 +88,7 @@ const avatarUrl = user.avatarUrl?.startsWith('http')
             <small>{new Date(post.createdAt).toLocaleString()}</small>
           </div>
         ))}
+        {nextCursor && <button onClick={() => fetchPosts(nextCursor)}>Load more</button>}
       </div>
     </div>
   );
@@ -0,0 +1,94 @@
+package com.twitter.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * The backend endpoints the load test calls. Every request goes through {@link #send}, which the driver times.
+ */
+final class ApiClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            // Plain HTTP/1.1 keep-alive, like browsers talking to Tomcat without h2c.
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    ApiClient(URI baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    JsonNode json(HttpResponse<byte[]> response) throws IOException {
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(TIMEOUT);
+    }
+
+    HttpRequest feed() {
+        return request("api/posts").GET().build();
+    }
+
+    HttpRequest timeline(long userId) {
+        return request("api/posts/timeline/" + userId).GET().build();
+    }
+
+    HttpRequest profile(long userId) {
+        return request("api/users/" + userId).GET().build();
+    }
+
+    HttpRequest userPosts(long userId) {
+        return request("api/posts/user/" + userId).GET().build();
+    }
+
+    HttpRequest userByHandle(String handle) {
+        return request("api/users/handle/" + URLEncoder.encode(handle, StandardCharsets.UTF_8)).GET().build();
+    }
+
+    HttpRequest createPost(long userId, String content) throws IOException {
+        return request("api/posts/user/" + userId)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(Map.of("content", content))))
+                .build();
+    }
+
+    HttpRequest follow(long userId, long followeeId) {
+        return request("api/users/" + userId + "/following/" + followeeId)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    /** Create ({@code userId == null}) or update a user through the multipart form the frontend submits. */
+    HttpRequest saveUser(Long userId, SyntheticUser user, byte[] avatar) {
+        Multipart form = new Multipart()
+                .text("username", user.username())
+                .text("handle", user.handle())
+                .text("location", user.location())
+                .text("bio", user.bio());
+        if (avatar != null) form.file("avatar", "avatar.png", "image/png", avatar);
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.ofByteArray(form.build());
+        HttpRequest.Builder builder = request(userId == null ? "api/users" : "api/users/" + userId)
+                .header("Content-Type", form.contentType());
+        return (userId == null ? builder.POST(body) : builder.PUT(body)).build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.twitter.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and failures of one endpoint. Recording is lock-free; {@link #reset} and {@link #snapshot} swap out
+ * the interval histogram, so the warmup can be discarded without pausing the workers.
+ */
+final class EndpointStats {
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final String endpoint;
+    private final Recorder recorder = new Recorder(MAX_MICROS, 3);
+    private final LongAdder failures = new LongAdder();
+
+    EndpointStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    void record(long latencyNanos, boolean success) {
+        recorder.recordValue(Math.min(MAX_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (!success) failures.increment();
+    }
+
+    void failed() {
+        failures.increment();
+    }
+
+    void reset() {
+        recorder.getIntervalHistogram();
+        failures.reset();
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(endpoint, recorder.getIntervalHistogram(), failures.sumThenReset());
+    }
+
+    record Snapshot(String endpoint, Histogram latencies, long failures) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.twitter.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the request mix with one virtual thread per simulated user.
+ * <p>
+ * Without a target rate each worker sends its next request as soon as the previous one returns (closed loop).
+ * With {@code --rate} every worker follows a fixed schedule and latency is measured from the scheduled send time,
+ * so a stalled server is charged for the requests it delayed instead of silently lowering the offered load.
+ */
+final class LoadDriver {
+    private final ApiClient api;
+    private final SyntheticData data;
+    private final LoadTestOptions options;
+    private final long[] userIds;
+    private final Zipf popularity;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private volatile boolean running = true;
+
+    LoadDriver(ApiClient api, SyntheticData data, LoadTestOptions options, long[] userIds) {
+        this.api = api;
+        this.data = data;
+        this.options = options;
+        this.userIds = userIds;
+        this.popularity = new Zipf(userIds.length, options.zipfExponent());
+        this.operations = options.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (String endpoint : List.of("GET /api/posts", "GET /api/posts/timeline/{id}", "GET /api/users/{id}",
+                "GET /api/posts/user/{id}", "POST /api/posts/user/{id}", "PUT /api/users/{id}")) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    /** @return per-endpoint results of the measured period, and its length in nanoseconds */
+    Result run() throws InterruptedException {
+        long intervalNanos = options.rate() > 0 ? (long) (options.concurrency() * 1e9 / options.rate()) : 0;
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < options.concurrency(); worker++) {
+                // Stagger scheduled workers evenly across one interval.
+                long firstSend = start + (intervalNanos * worker) / options.concurrency();
+                SplittableRandom random = data.random(SyntheticData.WORKERS, worker);
+                workers.submit(() -> work(random, firstSend, intervalNanos));
+            }
+            TimeUnit.SECONDS.sleep(options.warmupSeconds());
+            stats.values().forEach(EndpointStats::reset);
+            long measureFrom = System.nanoTime();
+            TimeUnit.SECONDS.sleep(options.durationSeconds());
+            List<EndpointStats.Snapshot> snapshots = new ArrayList<>();
+            for (EndpointStats endpoint : stats.values()) snapshots.add(endpoint.snapshot());
+            long elapsed = System.nanoTime() - measureFrom;
+            running = false;
+            return new Result(snapshots, elapsed);
+        }
+    }
+
+    private void work(SplittableRandom random, long firstSend, long intervalNanos) {
+        long scheduled = firstSend;
+        while (running) {
+            if (intervalNanos > 0) {
+                LockSupport.parkNanos(scheduled - System.nanoTime());
+            } else {
+                scheduled = System.nanoTime();
+            }
+            perform(pick(random), random, scheduled);
+            scheduled += intervalNanos;
+        }
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) return operations[i];
+        }
+        throw new IllegalStateException();
+    }
+
+    private void perform(Operation operation, SplittableRandom random, long scheduled) {
+        try {
+            switch (operation) {
+                case FEED -> call("GET /api/posts", api.feed(), scheduled);
+                case TIMELINE -> call("GET /api/posts/timeline/{id}", api.timeline(reader(random)), scheduled);
+                case PROFILE -> {
+                    long userId = userIds[popularity.sample(random)];
+                    call("GET /api/users/{id}", api.profile(userId), scheduled);
+                    call("GET /api/posts/user/{id}", api.userPosts(userId), System.nanoTime());
+                }
+                case POST -> {
+                    long author = userIds[popularity.sample(random)];
+                    call("POST /api/posts/user/{id}", api.createPost(author, data.postContent(random)), scheduled);
+                }
+                case UPLOAD -> {
+                    int index = random.nextInt(userIds.length);
+                    call("PUT /api/users/{id}", api.saveUser(userIds[index], data.user(index), data.avatar(random)),
+                            scheduled);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        } catch (IOException e) {
+            // Only building a request body can get here; send failures are counted per endpoint.
+            System.err.println("Could not build " + operation + " request: " + e.getMessage());
+        }
+    }
+
+    /** Timelines are read by everyone, not just popular users. */
+    private long reader(SplittableRandom random) {
+        return userIds[random.nextInt(userIds.length)];
+    }
+
+    private void call(String endpoint, HttpRequest request, long scheduled) throws InterruptedException {
+        EndpointStats endpointStats = stats.get(endpoint);
+        try {
+            HttpResponse<byte[]> response = api.send(request);
+            endpointStats.record(System.nanoTime() - scheduled, response.statusCode() / 100 == 2);
+        } catch (IOException e) {
+            endpointStats.failed();
+        }
+    }
+
+    record Result(List<EndpointStats.Snapshot> endpoints, long elapsedNanos) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.twitter.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Seeds a running backend with a synthetic social graph, then drives a weighted request mix against it and prints
+ * throughput and latency percentiles per endpoint.
+ */
+public final class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--help")) {
+            System.out.print(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        ApiClient api = new ApiClient(options.baseUrl());
+        SyntheticData data = new SyntheticData(options);
+        Seeder seeder = new Seeder(api, data, options);
+        System.out.printf("Target %s, seed %d, handle prefix %s%n", options.baseUrl(), options.seed(), options.handlePrefix());
+        long[] userIds = options.skipSeed() ? seeder.lookUp() : seeder.seed();
+
+        System.out.printf("Running %s with %d workers%s: %ds warmup, %ds measured%n", options.mix(),
+                options.concurrency(), options.rate() > 0 ? " at " + options.rate() + " req/s" : " (closed loop)",
+                options.warmupSeconds(), options.durationSeconds());
+        LoadDriver.Result result = new LoadDriver(api, data, options, userIds).run();
+        report(result, options);
+    }
+
+    private static void report(LoadDriver.Result result, LoadTestOptions options) throws IOException {
+        double seconds = result.elapsedNanos() / 1e9;
+        System.out.printf("%n%-30s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(3);
+        long errors = 0;
+        for (EndpointStats.Snapshot endpoint : result.endpoints()) {
+            Histogram latencies = endpoint.latencies();
+            if (latencies.getTotalCount() == 0 && endpoint.failures() == 0) continue;
+            total.add(latencies);
+            errors += endpoint.failures();
+            printRow(endpoint.endpoint(), latencies, endpoint.failures(), seconds);
+            if (options.outputDir() != null) writePercentiles(options.outputDir(), endpoint.endpoint(), latencies);
+        }
+        printRow("all", total, errors, seconds);
+    }
+
+    private static void printRow(String name, Histogram latencies, long errors, double seconds) {
+        System.out.printf("%-30s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, latencies.getTotalCount(),
+                errors, latencies.getTotalCount() / seconds, millis(latencies, 50), millis(latencies, 90),
+                millis(latencies, 99), millis(latencies, 99.9), latencies.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static void writePercentiles(String outputDir, String endpoint, Histogram latencies) throws IOException {
+        Path dir = Files.createDirectories(Path.of(outputDir));
+        String fileName = endpoint.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+        try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(fileName)))) {
+            latencies.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.twitter.loadtest;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command-line options, all given as {@code --name=value}. Run with {@code --help} for the list.
+ */
+record LoadTestOptions(
+        URI baseUrl,
+        long seed,
+        String handlePrefix,
+        int users,
+        int posts,
+        int followsPerUser,
+        double zipfExponent,
+        double avatarFraction,
+        int avatarVariants,
+        boolean skipSeed,
+        int concurrency,
+        int warmupSeconds,
+        int durationSeconds,
+        double rate,
+        Map<Operation, Integer> mix,
+        String outputDir) {
+
+    private static final Set<String> KNOWN = Set.of("base-url", "seed", "handle-prefix", "users",
+            "posts", "follows-per-user", "zipf-exponent", "avatar-fraction", "avatar-variants", "skip-seed",
+            "concurrency", "warmup-seconds", "duration-seconds", "rate", "mix", "output-dir");
+
+    static final String USAGE = """
+            Usage: LoadTest [--name=value ...]
+              --base-url=http://localhost:8080/   backend to drive
+              --seed=42                           seed for every random choice; same seed, same data and request mix
+              --handle-prefix=<random>            prefix of seeded handles, which must be unique per database
+              --users=1000                        users to create, through the multipart createUser endpoint
+              --posts=10000                       posts to create; authors follow a Zipf distribution
+              --follows-per-user=20               followees per user; followees follow a Zipf distribution
+              --zipf-exponent=1.1                 skew of authors, followees and read targets
+              --avatar-fraction=0.3               share of seeded users created with an avatar upload
+              --avatar-variants=32                distinct generated avatar images
+              --skip-seed=false                   reuse the users seeded by an earlier run with the same prefix
+              --concurrency=32                    concurrent virtual users
+              --warmup-seconds=10                 load before measurement starts
+              --duration-seconds=60               measured load
+              --rate=0                            total requests/s; 0 runs closed-loop as fast as responses allow
+              --mix=feed:40,timeline:20,profile:25,post:10,upload:5
+              --output-dir=                       directory for per-endpoint .hgrm percentile files
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("Bad argument: " + arg);
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        String baseUrl = values.getOrDefault("base-url", "http://localhost:8080/");
+        LoadTestOptions options = new LoadTestOptions(
+                URI.create(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/"),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("handle-prefix", "lt" + Long.toString(System.currentTimeMillis() % 46_656_000L, 36)),
+                Integer.parseInt(values.getOrDefault("users", "1000")),
+                Integer.parseInt(values.getOrDefault("posts", "10000")),
+                Integer.parseInt(values.getOrDefault("follows-per-user", "20")),
+                Double.parseDouble(values.getOrDefault("zipf-exponent", "1.1")),
+                Double.parseDouble(values.getOrDefault("avatar-fraction", "0.3")),
+                Integer.parseInt(values.getOrDefault("avatar-variants", "32")),
+                Boolean.parseBoolean(values.getOrDefault("skip-seed", "false")),
+                Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                Integer.parseInt(values.getOrDefault("warmup-seconds", "10")),
+                Integer.parseInt(values.getOrDefault("duration-seconds", "60")),
+                Double.parseDouble(values.getOrDefault("rate", "0")),
+                parseMix(values.getOrDefault("mix", "feed:40,timeline:20,profile:25,post:10,upload:5")),
+                values.get("output-dir"));
+
+        values.keySet().removeAll(KNOWN);
+        if (!values.isEmpty()) throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        if (options.users < 2) throw new IllegalArgumentException("--users must be at least 2");
+        return options;
+    }
+
+    static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) throw new IllegalArgumentException("Bad mix entry: " + entry);
+            int weight = Integer.parseInt(parts[1].strip());
+            if (weight < 0) throw new IllegalArgumentException("Negative weight: " + entry);
+            if (weight > 0) mix.put(Operation.valueOf(parts[0].strip().toUpperCase()), weight);
+        }
+        if (mix.isEmpty()) throw new IllegalArgumentException("The mix has no operations");
+        return mix;
+    }
+}
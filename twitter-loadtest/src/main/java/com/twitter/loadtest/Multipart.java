@@ -0,0 +1,43 @@
+package com.twitter.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Minimal {@code multipart/form-data} body builder; {@link java.net.http.HttpClient} has none.
+ */
+final class Multipart {
+    private final String boundary = "----loadtest" + UUID.randomUUID().toString().replace("-", "");
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    Multipart text(String name, String value) {
+        header("Content-Disposition: form-data; name=\"" + name + "\"\r\nContent-Type: text/plain; charset=UTF-8");
+        body.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        return this;
+    }
+
+    Multipart file(String name, String filename, String contentType, byte[] content) {
+        header("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: " + contentType);
+        body.writeBytes(content);
+        body.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        return this;
+    }
+
+    private void header(String headers) {
+        body.writeBytes(("--" + boundary + "\r\n" + headers + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    String contentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    byte[] build() {
+        ByteArrayOutputStream complete = new ByteArrayOutputStream(body.size() + boundary.length() + 8);
+        complete.writeBytes(body.toByteArray());
+        complete.writeBytes(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return complete.toByteArray();
+    }
+}
@@ -0,0 +1,12 @@
+package com.twitter.loadtest;
+
+/**
+ * The user actions in the request mix. A profile view issues two requests, the profile and its first page of posts.
+ */
+enum Operation {
+    FEED,
+    TIMELINE,
+    PROFILE,
+    POST,
+    UPLOAD
+}
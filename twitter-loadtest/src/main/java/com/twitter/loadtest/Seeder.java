@@ -0,0 +1,111 @@
+package com.twitter.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the synthetic social graph through the public API: users (some with avatar uploads), a follow graph whose
+ * in-degree follows a Zipf distribution, and posts whose authors follow the same distribution. Rank 0 is both the
+ * most followed and the most active user.
+ */
+final class Seeder {
+    private final ApiClient api;
+    private final SyntheticData data;
+    private final LoadTestOptions options;
+    private final Zipf popularity;
+
+    Seeder(ApiClient api, SyntheticData data, LoadTestOptions options) {
+        this.api = api;
+        this.data = data;
+        this.options = options;
+        this.popularity = new Zipf(options.users(), options.zipfExponent());
+    }
+
+    /** @return the backend id of every seeded user, indexed by popularity rank */
+    long[] seed() throws InterruptedException {
+        long[] userIds = new long[options.users()];
+        int failed = phase("users", options.users(), index -> {
+            HttpResponse<byte[]> response = send(api.saveUser(null, data.user(index), data.initialAvatar(index)));
+            userIds[index] = api.json(response).get("id").asLong();
+        });
+        if (failed > 0) throw new IllegalStateException(failed + " users could not be created");
+
+        phase("follow lists", options.users(), index -> {
+            SplittableRandom random = data.random(SyntheticData.FOLLOWS, index);
+            Set<Integer> followees = new HashSet<>();
+            int wanted = Math.min(options.followsPerUser(), options.users() - 1);
+            // Popular users are drawn repeatedly; cap the attempts so tiny graphs still terminate.
+            for (int attempt = 0; followees.size() < wanted && attempt < wanted * 20; attempt++) {
+                int followee = popularity.sample(random);
+                if (followee != index) followees.add(followee);
+            }
+            for (int followee : followees) send(api.follow(userIds[index], userIds[followee]));
+        });
+
+        phase("posts", options.posts(), index -> {
+            SplittableRandom random = data.random(SyntheticData.POSTS, index);
+            int author = popularity.sample(random);
+            send(api.createPost(userIds[author], data.postContent(random)));
+        });
+        return userIds;
+    }
+
+    /** Looks up the users an earlier run seeded under the same handle prefix. */
+    long[] lookUp() throws InterruptedException {
+        long[] userIds = new long[options.users()];
+        int failed = phase("user lookup", options.users(), index ->
+                userIds[index] = api.json(send(api.userByHandle(data.handle(index)))).get("id").asLong());
+        if (failed > 0) throw new IllegalStateException(failed + " seeded users were not found; check --handle-prefix");
+        return userIds;
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = api.send(request);
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(request.method() + " " + request.uri() + " returned " + response.statusCode());
+        }
+        return response;
+    }
+
+    /** @return the number of failed steps */
+    private int phase(String name, int count, Step step) throws InterruptedException {
+        long start = System.nanoTime();
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(options.concurrency());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                inFlight.acquire();
+                executor.submit(() -> {
+                    try {
+                        step.run(index);
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        System.err.printf("seeding %s #%d failed: %s%n", name, index, e.getMessage());
+                    } finally {
+                        inFlight.release();
+                        int finished = done.incrementAndGet();
+                        if (finished % 1000 == 0) System.out.printf("  %s: %d/%d%n", name, finished, count);
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s: %d in %.1fs (%.0f/s, %d failed)%n", name, count, seconds, count / seconds, failed.get());
+        return failed.get();
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run(int index) throws Exception;
+    }
+}
@@ -0,0 +1,109 @@
+package com.twitter.loadtest;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic content for the synthetic graph. Every item draws from its own random stream derived from the seed
+ * and the item's index, so the data does not depend on how many requests ran concurrently or in which order.
+ */
+final class SyntheticData {
+    static final long USERS = 1;
+    static final long FOLLOWS = 2;
+    static final long POSTS = 3;
+    static final long WORKERS = 4;
+    private static final long AVATAR_IMAGES = 5;
+    private static final long INITIAL_AVATARS = 6;
+
+    private static final String[] WORDS = ("just shipped the new build coffee first then code anyone else awake "
+            + "great talk today on latency budgets the cache was cold again weekend plans hiking with friends "
+            + "reading about garbage collectors deploy went smoothly this time").split(" ");
+    private static final String[] CITIES = {"Lisbon", "Berlin", "Toronto", "Pune", "Austin", "Nairobi", "Osaka", "Lima"};
+    private static final int HASHTAGS = 200;
+
+    private final long seed;
+    private final String handlePrefix;
+    private final double avatarFraction;
+    private final Zipf hashtags;
+    private final Zipf mentions;
+    private final List<byte[]> avatars = new ArrayList<>();
+
+    SyntheticData(LoadTestOptions options) {
+        this.seed = options.seed();
+        this.handlePrefix = options.handlePrefix();
+        this.avatarFraction = options.avatarFraction();
+        this.hashtags = new Zipf(HASHTAGS, 1.0);
+        this.mentions = new Zipf(options.users(), options.zipfExponent());
+        for (int i = 0; i < options.avatarVariants(); i++) avatars.add(renderAvatar(random(AVATAR_IMAGES, i)));
+    }
+
+    SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index);
+    }
+
+    String handle(int index) {
+        return "@" + handlePrefix + "_" + index;
+    }
+
+    SyntheticUser user(int index) {
+        SplittableRandom random = random(USERS, index);
+        return new SyntheticUser("User " + index, handle(index), CITIES[random.nextInt(CITIES.length)],
+                sentence(random, 6 + random.nextInt(10)));
+    }
+
+    /** The avatar a seeded user is created with, or null for users without one. */
+    byte[] initialAvatar(int index) {
+        SplittableRandom random = random(INITIAL_AVATARS, index);
+        return random.nextDouble() < avatarFraction ? avatar(random) : null;
+    }
+
+    byte[] avatar(SplittableRandom random) {
+        return avatars.get(random.nextInt(avatars.size()));
+    }
+
+    /** A post of a few words, usually with a popular hashtag and sometimes mentioning a popular user. */
+    String postContent(SplittableRandom random) {
+        StringBuilder content = new StringBuilder(sentence(random, 5 + random.nextInt(15)));
+        if (random.nextDouble() < 0.6) content.append(" #topic").append(hashtags.sample(random));
+        if (random.nextDouble() < 0.2) content.append(' ').append(handle(mentions.sample(random)));
+        return content.length() > 280 ? content.substring(0, 280) : content.toString();
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sentence.append(' ');
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+
+    private static byte[] renderAvatar(SplittableRandom random) {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)), 256, 256, new Color(random.nextInt(0xFFFFFF))));
+        g.fillRect(0, 0, 256, 256);
+        for (int i = 0; i < 12; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            int size = 16 + random.nextInt(96);
+            g.fillOval(random.nextInt(256), random.nextInt(256), size, size);
+        }
+        g.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return png.toByteArray();
+    }
+}
@@ -0,0 +1,4 @@
+package com.twitter.loadtest;
+
+record SyntheticUser(String username, String handle, String location, String bio) {
+}
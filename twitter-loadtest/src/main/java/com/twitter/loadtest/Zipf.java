@@ -0,0 +1,32 @@
+package com.twitter.loadtest;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples ranks {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^exponent}, so rank 0 is the
+ * most popular. The cumulative distribution is precomputed once; each sample is a binary search.
+ */
+final class Zipf {
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent) {
+        if (n < 1) throw new IllegalArgumentException("n must be positive");
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) cumulative[rank] /= sum;
+    }
+
+    int sample(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    int size() {
+        return cumulative.length;
+    }
+}
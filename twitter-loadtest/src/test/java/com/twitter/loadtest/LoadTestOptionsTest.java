@@ -0,0 +1,33 @@
+package com.twitter.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTestOptionsTest {
+
+    @Test
+    void parse_shouldApplyDefaultsAndOverrides() {
+        LoadTestOptions options = LoadTestOptions.parse(new String[]{"--users=50", "--base-url=http://host:9000"});
+
+        assertEquals(50, options.users());
+        assertEquals("http://host:9000/", options.baseUrl().toString());
+        assertEquals(42, options.seed());
+        assertEquals(List.of(Operation.FEED, Operation.TIMELINE, Operation.PROFILE, Operation.POST, Operation.UPLOAD),
+                List.copyOf(options.mix().keySet()));
+    }
+
+    @Test
+    void parseMix_shouldDropZeroWeights() {
+        assertEquals(Map.of(Operation.FEED, 3, Operation.POST, 1), LoadTestOptions.parseMix("feed:3, post:1, upload:0"));
+    }
+
+    @Test
+    void parse_shouldRejectUnknownOptions() {
+        assertThrows(IllegalArgumentException.class, () -> LoadTestOptions.parse(new String[]{"--usres=10"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestOptions.parseMix("feed:1,browse:2"));
+    }
+}
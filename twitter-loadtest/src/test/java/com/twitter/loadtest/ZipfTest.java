@@ -0,0 +1,43 @@
+package com.twitter.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfTest {
+
+    @Test
+    void sample_shouldFavourLowRanksByTheExpectedRatio() {
+        Zipf zipf = new Zipf(1000, 1.0);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] counts = new int[1000];
+        for (int i = 0; i < 200_000; i++) counts[zipf.sample(random)]++;
+
+        // P(rank 0) / P(rank 1) = 2 and P(rank 0) / P(rank 9) = 10 for exponent 1.
+        assertEquals(2.0, counts[0] / (double) counts[1], 0.15);
+        assertEquals(10.0, counts[0] / (double) counts[9], 1.0);
+        assertTrue(counts[999] > 0, "the tail must still be reachable");
+    }
+
+    @Test
+    void sample_shouldBeReproducibleForTheSameSeed() {
+        Zipf zipf = new Zipf(50, 1.1);
+        SplittableRandom first = new SplittableRandom(42);
+        SplittableRandom second = new SplittableRandom(42);
+
+        for (int i = 0; i < 1000; i++) assertEquals(zipf.sample(first), zipf.sample(second));
+    }
+
+    @Test
+    void sample_shouldStayInRange() {
+        Zipf zipf = new Zipf(3, 2.0);
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int i = 0; i < 10_000; i++) {
+            int rank = zipf.sample(random);
+            assertTrue(rank >= 0 && rank < 3);
+        }
+    }
+}